@@ -0,0 +1,314 @@
+package org.cis1200;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * A BoundedTrainer trains a MarkovChain in bounded memory by leaving out rare
+ * bigrams, which in a large feed are mostly typos and one-off words.
+ * <p>
+ * Every bigram is first counted in a CountMinSketch, which uses a fixed
+ * quarter of the heap budget however many distinct bigrams there are. A
+ * bigram is only stored exactly in the MarkovChain once the sketch says it has
+ * been seen promoteAt times; it is then recorded with that estimated count,
+ * and counted exactly from then on. Start words are treated the same way, as
+ * bigrams from the start of a sentence. A word is only stored once a bigram
+ * or start that it belongs to is, so words that only occur in rare bigrams
+ * are never stored at all.
+ * <p>
+ * The rest of the budget bounds the exact storage, at about BYTES_PER_BIGRAM
+ * per stored bigram or start word and BYTES_PER_WORD per stored word.
+ * Whenever it fills up, promoteAt doubles, so that only ever more frequent
+ * bigrams and start words are added.
+ * <p>
+ * {@link #trainTwoPass} gives exact counts instead: a first pass counts every
+ * bigram in the sketch, and a second pass stores just the bigrams the sketch
+ * puts at or above a minimum count. Since the sketch never underestimates,
+ * every bigram that really occurs minCount times is kept.
+ * <p>
+ * {@link #report()} measures how much the pruning changed the model.
+ */
+public class BoundedTrainer {
+    /** rough heap cost of one stored bigram, including its share of indexes */
+    static final int BYTES_PER_BIGRAM = 64;
+    /** rough heap cost of one stored word: a short String and its indexes */
+    static final int BYTES_PER_WORD = 64;
+    /** stands for the start of a sentence in the sketch's keys */
+    private static final String START_TOKEN = "<START>";
+
+    private final MarkovChain mc;
+    private final CountMinSketch sketch;
+    /** the part of the budget left for exact storage after the sketch */
+    private final long maxStored;
+    private int promoteAt;
+
+    /** bigram occurrences seen, and how many of them are counted in mc */
+    private long seen;
+    private long kept;
+    private long sentences;
+
+    /**
+     * Creates a trainer for a new MarkovChain.
+     *
+     * @param ng         - A (non-null) NumberGenerator for the MarkovChain
+     * @param heapBudget - the number of bytes the sketch and the stored bigrams
+     *                   may use between them
+     * @param promoteAt  - how often a bigram must be seen before it is stored
+     * @throws IllegalArgumentException if promoteAt is less than 1 or the
+     *                                  budget is too small for a sketch
+     */
+    public BoundedTrainer(NumberGenerator ng, long heapBudget, int promoteAt) {
+        if (promoteAt < 1) {
+            throw new IllegalArgumentException("promoteAt must be at least 1");
+        }
+        this.mc = new MarkovChain(ng);
+        this.sketch = new CountMinSketch(heapBudget / 4);
+        this.maxStored = Math.max(1, heapBudget - sketch.bytes());
+        this.promoteAt = promoteAt;
+    }
+
+    /**
+     * Adds a sentence's training data, as {@link MarkovChain#train(Iterator)}
+     * does, leaving out bigrams that have not yet been seen often enough.
+     *
+     * @param sentence - an iterator representing one sentence of training data
+     * @throws IllegalArgumentException - when the sentence Iterator is null
+     */
+    public void train(Iterator<String> sentence) {
+        if (sentence == null) {
+            throw new IllegalArgumentException();
+        }
+        if (!sentence.hasNext()) {
+            return;
+        }
+        sentences++;
+        String previous = sentence.next();
+        countStart(previous);
+        while (sentence.hasNext()) {
+            String next = sentence.next();
+            count(previous, next);
+            previous = next;
+        }
+        count(previous, MarkovChain.END_TOKEN);
+    }
+
+    /**
+     * Adds every sentence of a stream, in order.
+     *
+     * @param sentences - the training data
+     */
+    public void train(Stream<? extends List<String>> sentences) {
+        sentences.sequential().forEachOrdered(sentence -> train(sentence.iterator()));
+    }
+
+    /**
+     * @return the MarkovChain of the bigrams kept so far
+     */
+    public MarkovChain chain() {
+        return mc;
+    }
+
+    /**
+     * @return the number of times a bigram must now be seen to be stored
+     */
+    public int promoteAt() {
+        return promoteAt;
+    }
+
+    /**
+     * @return how much the pruning has changed the model so far
+     */
+    public Report report() {
+        return new Report(sentences, seen, kept, mc.transitions.edges(), promoteAt);
+    }
+
+    private void count(String first, String second) {
+        seen++;
+        int from = mc.vocabulary.id(first);
+        int to = mc.vocabulary.id(second);
+        if (from >= 0 && to >= 0 && mc.transitions.recorded(from, to) > 0) {
+            mc.transitions.record(from, to);
+            kept++;
+            return;
+        }
+        int estimate = sketch.add(key(first, second), 1);
+        if (estimate >= promoteAt) {
+            mc.transitions.record(
+                    mc.vocabulary.intern(first), mc.vocabulary.intern(second), estimate
+            );
+            kept += estimate;
+            checkBudget();
+        }
+    }
+
+    private void countStart(String word) {
+        int id = mc.vocabulary.id(word);
+        if (id >= 0 && mc.startTable.recorded(MarkovChain.START_ROW, id) > 0) {
+            mc.startTable.record(MarkovChain.START_ROW, id);
+            return;
+        }
+        int estimate = sketch.add(key(START_TOKEN, word), 1);
+        if (estimate >= promoteAt) {
+            mc.startTable.record(MarkovChain.START_ROW, mc.vocabulary.intern(word), estimate);
+            checkBudget();
+        }
+    }
+
+    /**
+     * Doubles promoteAt if the stored bigrams, start words and words fill the
+     * budget.
+     */
+    private void checkBudget() {
+        long stored = (long) BYTES_PER_BIGRAM * (mc.transitions.edges() + mc.startTable.edges())
+                + (long) BYTES_PER_WORD * mc.vocabulary.size();
+        if (stored >= maxStored) {
+            promoteAt = promoteAt > Integer.MAX_VALUE / 2 ? Integer.MAX_VALUE : promoteAt * 2;
+        }
+    }
+
+    /**
+     * Trains a MarkovChain on only the bigrams and start words seen at least
+     * minCount times, with exact counts, by reading the training data twice.
+     *
+     * @param sentences   - supplies the same training data on each call
+     * @param minCount    - how often a bigram must occur to be kept
+     * @param sketchBytes - the memory to count bigrams in during the first pass
+     * @param ng          - A (non-null) NumberGenerator for the MarkovChain
+     * @return a trainer holding the pruned MarkovChain and its report
+     * @throws IllegalArgumentException if minCount is less than 1 or
+     *                                  sketchBytes is too small
+     */
+    public static BoundedTrainer trainTwoPass(
+            Supplier<? extends Stream<? extends List<String>>> sentences, int minCount,
+            long sketchBytes, NumberGenerator ng
+    ) {
+        BoundedTrainer trainer = new BoundedTrainer(ng, sketchBytes * 4, minCount);
+        CountMinSketch sketch = trainer.sketch;
+        sentences.get().sequential().forEachOrdered(sentence -> {
+            String previous = null;
+            for (String word : sentence) {
+                sketch.add(previous == null ? key(START_TOKEN, word) : key(previous, word), 1);
+                previous = word;
+            }
+            if (previous != null) {
+                sketch.add(key(previous, MarkovChain.END_TOKEN), 1);
+            }
+        });
+
+        MarkovChain mc = trainer.mc;
+        sentences.get().sequential().forEachOrdered(sentence -> {
+            if (sentence.isEmpty()) {
+                return;
+            }
+            trainer.sentences++;
+            String start = sentence.get(0);
+            if (sketch.estimate(key(START_TOKEN, start)) >= minCount) {
+                mc.startTable.record(MarkovChain.START_ROW, mc.vocabulary.intern(start));
+            }
+            for (int i = 0; i < sentence.size(); i++) {
+                String first = sentence.get(i);
+                String second = i + 1 < sentence.size()
+                        ? sentence.get(i + 1) : MarkovChain.END_TOKEN;
+                trainer.seen++;
+                if (sketch.estimate(key(first, second)) >= minCount) {
+                    mc.transitions.record(
+                            mc.vocabulary.intern(first), mc.vocabulary.intern(second)
+                    );
+                    trainer.kept++;
+                }
+            }
+        });
+        return trainer;
+    }
+
+    /**
+     * A well-mixed 64-bit key for a bigram, computed without interning. The
+     * words' characters are hashed directly, as NgramIndex does, rather than
+     * their 32-bit hashCodes, which many pairs of words share ("Aa" and "BB").
+     * The length of first separates the two words, so "ab c" and "a bc" get
+     * different keys.
+     */
+    static long key(String first, String second) {
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < first.length(); i++) {
+            h ^= first.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        h ^= first.length();
+        h *= 0x100000001B3L;
+        for (int i = 0; i < second.length(); i++) {
+            h ^= second.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        h ^= h >>> 29;
+        h *= 0xFF51AFD7ED558CCDL;
+        return h ^ (h >>> 32);
+    }
+
+    /**
+     * How much pruning changed a model.
+     * <p>
+     * droppedMass() is the share of bigram occurrences left out of the model.
+     * For the two-pass trainer it is exactly the total variation distance
+     * between the bigram frequencies of the training data and those of the
+     * pruned model: the largest difference in probability the pruning makes
+     * to any set of bigrams. For the one-pass trainer, promoted bigrams carry
+     * their sketch estimates, so it is an approximation.
+     */
+    public static final class Report {
+        private final long sentences;
+        private final long seen;
+        private final long kept;
+        private final int bigrams;
+        private final int promoteAt;
+
+        Report(long sentences, long seen, long kept, int bigrams, int promoteAt) {
+            this.sentences = sentences;
+            this.seen = seen;
+            this.kept = kept;
+            this.bigrams = bigrams;
+            this.promoteAt = promoteAt;
+        }
+
+        /** @return the number of sentences trained on */
+        public long sentences() {
+            return sentences;
+        }
+
+        /** @return the number of bigram occurrences in the training data */
+        public long seen() {
+            return seen;
+        }
+
+        /** @return the number of bigram occurrences counted in the model */
+        public long kept() {
+            return kept;
+        }
+
+        /** @return the number of distinct bigrams stored in the model */
+        public int bigrams() {
+            return bigrams;
+        }
+
+        /** @return the promotion threshold when the report was made */
+        public int promoteAt() {
+            return promoteAt;
+        }
+
+        /** @return the share of bigram occurrences left out, from 0 to 1 */
+        public double droppedMass() {
+            return seen == 0 ? 0 : Math.max(0, 1 - (double) kept / seen);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "%d sentences, %d of %d bigram occurrences kept in %d bigrams"
+                            + " (%.2f%% dropped), promoteAt %d",
+                    sentences, kept, seen, bigrams, 100 * droppedMass(), promoteAt
+            );
+        }
+    }
+}
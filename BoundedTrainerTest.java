@@ -0,0 +1,161 @@
+package org.cis1200;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/** Tests for BoundedTrainer */
+public class BoundedTrainerTest {
+
+    // A helper function that reads the sentences of a bundled CSV file
+    private static List<List<String>> sentences(String path) {
+        return TweetParser.streamTrainingData(FileLineIterator.fileToReader(path), 2)
+                .collect(Collectors.toList());
+    }
+
+    // A helper function that counts every bigram of the sentences, including
+    // the ones that end a sentence
+    private static Map<List<String>, Integer> bigrams(List<List<String>> sentences) {
+        Map<List<String>, Integer> counts = new HashMap<>();
+        for (List<String> sentence : sentences) {
+            for (int i = 0; i < sentence.size(); i++) {
+                String next = i + 1 < sentence.size() ? sentence.get(i + 1) : MarkovChain.END_TOKEN;
+                counts.merge(Arrays.asList(sentence.get(i), next), 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    // A helper function that looks up a bigram's count in a chain
+    private static int recorded(MarkovChain mc, String first, String second) {
+        int from = mc.vocabulary.id(first);
+        int to = mc.vocabulary.id(second);
+        return from < 0 || to < 0 ? 0 : mc.transitions.recorded(from, to);
+    }
+
+    @Test
+    public void testPromoteAtOneMatchesFullTraining() {
+        List<List<String>> sentences = sentences("./files/dog_feelings_tweets.csv");
+        MarkovChain full = new MarkovChain();
+        full.train(sentences.stream());
+        BoundedTrainer trainer = new BoundedTrainer(new RandomNumberGenerator(), 1 << 26, 1);
+        trainer.train(sentences.stream());
+
+        assertEquals(full.toString(), trainer.chain().toString());
+        assertEquals(0, trainer.report().droppedMass(), 0);
+    }
+
+    @Test
+    public void testTwoPassKeepsFrequentBigramsExactly() {
+        List<List<String>> sentences = sentences("./files/noaa_tweets.csv");
+        Map<List<String>, Integer> truth = bigrams(sentences);
+        BoundedTrainer trainer = BoundedTrainer.trainTwoPass(
+                sentences::stream, 3, 1 << 14, new RandomNumberGenerator()
+        );
+        MarkovChain mc = trainer.chain();
+
+        long total = 0;
+        long frequent = 0;
+        for (Map.Entry<List<String>, Integer> e : truth.entrySet()) {
+            int count = recorded(mc, e.getKey().get(0), e.getKey().get(1));
+            total += e.getValue();
+            if (e.getValue() >= 3) {
+                assertEquals((int) e.getValue(), count);
+                frequent += e.getValue();
+            } else {
+                assertTrue(count == 0 || count == e.getValue());
+            }
+        }
+        BoundedTrainer.Report report = trainer.report();
+        assertEquals(total, report.seen());
+        assertTrue(report.kept() >= frequent);
+        assertEquals(1 - (double) report.kept() / total, report.droppedMass(), 1e-12);
+        assertTrue(report.droppedMass() > 0);
+        assertTrue(report.bigrams() < truth.size());
+    }
+
+    @Test
+    public void testOnePassDropsRareBigrams() {
+        BoundedTrainer trainer = new BoundedTrainer(new RandomNumberGenerator(), 1 << 20, 2);
+        trainer.train(Arrays.asList("a", "b").iterator());
+        trainer.train(Arrays.asList("a", "b").iterator());
+        trainer.train(Arrays.asList("a", "c").iterator());
+        trainer.train(Arrays.asList("a", "b").iterator());
+        trainer.train(Arrays.asList("d", "b").iterator());
+        MarkovChain mc = trainer.chain();
+
+        assertEquals(3, recorded(mc, "a", "b"));
+        assertEquals(0, recorded(mc, "a", "c"));
+        assertEquals(-1, mc.vocabulary.id("c"));
+        assertEquals(4, recorded(mc, "b", MarkovChain.END_TOKEN));
+        // start words are promoted like bigrams
+        assertEquals(4, mc.startWords().count("a"));
+        assertEquals(4, mc.startWords().getTotal());
+        assertEquals(-1, mc.vocabulary.id("d"));
+        BoundedTrainer.Report report = trainer.report();
+        assertEquals(10, report.seen());
+        assertEquals(7, report.kept());
+        assertEquals(0.3, report.droppedMass(), 1e-12);
+    }
+
+    @Test
+    public void testWordsWithEqualHashCodesAreCountedApart() {
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        BoundedTrainer trainer = new BoundedTrainer(new RandomNumberGenerator(), 1 << 20, 2);
+        trainer.train(Arrays.asList("x", "Aa").iterator());
+        trainer.train(Arrays.asList("x", "BB").iterator());
+        MarkovChain mc = trainer.chain();
+
+        assertEquals(0, recorded(mc, "x", "BB"));
+        assertEquals(-1, mc.vocabulary.id("BB"));
+        assertTrue(BoundedTrainer.key("Aa", "x") != BoundedTrainer.key("BB", "x"));
+        assertTrue(BoundedTrainer.key("ab", "c") != BoundedTrainer.key("a", "bc"));
+    }
+
+    @Test
+    public void testThresholdRisesWhenBudgetFills() {
+        // a budget of one sketch and a handful of stored bigrams
+        long budget = 4 * 4096 + 4 * BoundedTrainer.BYTES_PER_BIGRAM;
+        BoundedTrainer trainer = new BoundedTrainer(new RandomNumberGenerator(), budget, 1);
+        trainer.train(sentences("./files/dog_feelings_tweets.csv").stream());
+
+        assertTrue(trainer.promoteAt() > 1);
+        assertEquals(trainer.promoteAt(), trainer.report().promoteAt());
+        assertTrue(trainer.report().droppedMass() > 0);
+    }
+
+    @Test
+    public void testBudgetCountsWordsAndStartWords() {
+        long budget = 4 * 4096;
+        BoundedTrainer trainer = new BoundedTrainer(new RandomNumberGenerator(), budget, 1);
+        // every sentence has a new start word, and no bigram repeats
+        for (int i = 0; i < 1000; i++) {
+            trainer.train(Arrays.asList("start" + i).iterator());
+        }
+        MarkovChain mc = trainer.chain();
+
+        assertTrue(trainer.promoteAt() > 1);
+        // each kept sentence stores a word, a start word and a bigram
+        int most = (int) (budget / (2 * BoundedTrainer.BYTES_PER_BIGRAM
+                + BoundedTrainer.BYTES_PER_WORD));
+        assertTrue(mc.vocabulary.size() <= most + 1);
+        assertTrue(mc.startWords().getTotal() <= most);
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        NumberGenerator ng = new RandomNumberGenerator();
+        assertThrows(IllegalArgumentException.class, () -> new BoundedTrainer(ng, 1 << 20, 0));
+        assertThrows(IllegalArgumentException.class, () -> new BoundedTrainer(ng, 16, 1));
+        BoundedTrainer trainer = new BoundedTrainer(ng, 1 << 20, 1);
+        assertThrows(IllegalArgumentException.class, () -> trainer.train((Iterator<String>) null));
+    }
+}
@@ -0,0 +1,129 @@
+package org.cis1200;
+
+import java.util.NoSuchElementException;
+
+/**
+ * A ChainCursor is one walk through the words of a MarkovChain or MarkovModel.
+ * It holds the only state that changes while generating (the upcoming word and
+ * the NumberGenerator that picks successors) and reads the counts it walks
+ * through without changing them.
+ * <p>
+ * Cursors are cheap to create. Any number of cursors may walk the same
+ * MarkovModel at once, from different threads, without locking, as long as
+ * each thread uses its own cursor and NumberGenerator. A single cursor is not
+ * thread-safe.
+ */
+public class ChainCursor implements SentenceWalk {
+    private final Vocabulary vocabulary;
+    private final TransitionTable transitions;
+    private final TransitionTable startTable;
+    /** source of random numbers */
+    private final NumberGenerator ng;
+
+    private String nextWord;
+    /** vocabulary id of nextWord, or -1 if nextWord was never interned */
+    private int nextId;
+
+    /**
+     * Creates a cursor with no upcoming word; call {@link #reset()} to start a
+     * sentence.
+     *
+     * @param vocabulary  - the words of the chain
+     * @param transitions - successor counts for each word
+     * @param startTable  - start word counts, in row MarkovChain.START_ROW
+     * @param ng          - A (non-null) NumberGenerator used to pick words
+     */
+    ChainCursor(
+            Vocabulary vocabulary, TransitionTable transitions, TransitionTable startTable,
+            NumberGenerator ng
+    ) {
+        if (ng == null) {
+            throw new IllegalArgumentException(
+                    "NumberGenerator input cannot be null"
+            );
+        }
+        this.vocabulary = vocabulary;
+        this.transitions = transitions;
+        this.startTable = startTable;
+        this.ng = ng;
+        reset(MarkovChain.END_TOKEN);
+    }
+
+    /**
+     * Begins a walk at start, so that the next call to next() returns start.
+     *
+     * @param start - the first word of the walk
+     * @throws IllegalArgumentException - when parameter is null.
+     */
+    public void reset(String start) {
+        if (start == null) {
+            throw new IllegalArgumentException("start cannot be null");
+        }
+        nextWord = start;
+        nextId = vocabulary.id(start);
+    }
+
+    /**
+     * Begins a walk at a start word picked at random, so that the next call to
+     * next() returns that start word. If nothing was trained, the walk is
+     * empty.
+     */
+    @Override
+    public void reset() {
+        if (!startTable.hasSuccessors(MarkovChain.START_ROW)) {
+            reset(MarkovChain.END_TOKEN);
+        } else {
+            reset(vocabulary.word(startTable.pick(MarkovChain.START_ROW, ng)));
+        }
+    }
+
+    /**
+     * @return true if {@link #next()} will return a word of the sentence and
+     *         false at the end of the sentence
+     */
+    @Override
+    public boolean hasNext() {
+        return nextWord != null && !nextWord.equals(MarkovChain.END_TOKEN);
+    }
+
+    /**
+     * Returns the word that the next call to {@link #next()} will return,
+     * without advancing the walk or drawing a random number.
+     *
+     * @return the upcoming word
+     * @throws NoSuchElementException if there are no more words on the walk
+     */
+    @Override
+    public String peek() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return nextWord;
+    }
+
+    /**
+     * @return the next word of the walk (chosen at random via the number
+     *         generator if it is a successor)
+     * @throws NoSuchElementException if there are no more words on the walk
+     */
+    @Override
+    public String next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        String result = nextWord;
+        if (nextId < 0) {
+            // the word may have been trained on since reset()
+            nextId = vocabulary.id(result);
+        }
+        int successor = transitions.pick(nextId, ng);
+        if (successor < 0) {
+            nextWord = MarkovChain.END_TOKEN;
+            nextId = -1;
+        } else {
+            nextWord = vocabulary.word(successor);
+            nextId = successor;
+        }
+        return result;
+    }
+}
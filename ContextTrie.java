@@ -0,0 +1,123 @@
+package org.cis1200;
+
+import java.util.Arrays;
+
+/**
+ * A ContextTrie gives each distinct context (a short sequence of word ids) a
+ * small int id, so that an OrderKChain can keep its counts in a
+ * TransitionTable with one row per context.
+ * <p>
+ * Each node is a context. Its children extend it by one more word, and the
+ * root is the empty context. Node ids are handed out densely in the order
+ * nodes are created (the root is 0), so they can be used directly as row
+ * indexes. The edges are kept in one open-addressed hash table keyed on the
+ * parent id and the word id packed into a long, so finding a child never
+ * allocates. A slot takes 12 bytes and the table is kept at most half full,
+ * so the trie takes at least 24 bytes per node (up to 48 just after it
+ * grows).
+ * <p>
+ * An OrderKChain walks a context from its most recent word back, so the node
+ * at depth j is the context of the last j words.
+ */
+class ContextTrie {
+    /** the id of the empty context */
+    static final int ROOT = 0;
+    /** marks an empty slot in the hash table */
+    private static final int EMPTY = -1;
+
+    // open-addressed hash table from packed (parent, word) to child id
+    private long[] slotKeys = new long[32];
+    private int[] slotNodes = new int[32];
+    /** number of nodes, including the root */
+    private int size = 1;
+
+    ContextTrie() {
+        Arrays.fill(slotNodes, EMPTY);
+    }
+
+    /**
+     * @param parent - a node id, or -1
+     * @param word   - a word id, or any other int standing for a word (such
+     *               as the start of a sentence)
+     * @return the id of the node that extends parent by word, or -1 if there
+     *         is none
+     */
+    int child(int parent, int word) {
+        if (parent < 0) {
+            return -1;
+        }
+        return slotNodes[find(pack(parent, word))];
+    }
+
+    /**
+     * Returns the node that extends parent by word, adding it if needed.
+     *
+     * @param parent - a node id
+     * @param word   - a word id, or any other int standing for a word
+     * @return the id of the child
+     */
+    int intern(int parent, int word) {
+        long key = pack(parent, word);
+        int slot = find(key);
+        if (slotNodes[slot] != EMPTY) {
+            return slotNodes[slot];
+        }
+        int node = size++;
+        slotKeys[slot] = key;
+        slotNodes[slot] = node;
+        if (size * 2 > slotNodes.length) {
+            rehash();
+        }
+        return node;
+    }
+
+    /**
+     * @return the number of nodes, including the root
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the size of the hash table in bytes
+     */
+    long bytes() {
+        return (long) slotKeys.length * (Long.BYTES + Integer.BYTES);
+    }
+
+    private static long pack(int parent, int word) {
+        return ((long) parent << 32) | (word & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Finds the slot holding key, or the empty slot where it would go.
+     */
+    private int find(long key) {
+        int mask = slotNodes.length - 1;
+        int slot = mix(key) & mask;
+        while (slotNodes[slot] != EMPTY && slotKeys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int mix(long key) {
+        key *= 0x9E3779B97F4A7C15L;
+        return (int) (key ^ (key >>> 32));
+    }
+
+    private void rehash() {
+        long[] oldKeys = slotKeys;
+        int[] oldNodes = slotNodes;
+        slotKeys = new long[oldKeys.length * 2];
+        slotNodes = new int[oldNodes.length * 2];
+        Arrays.fill(slotNodes, EMPTY);
+        for (int i = 0; i < oldNodes.length; i++) {
+            if (oldNodes[i] != EMPTY) {
+                int slot = find(oldKeys[i]);
+                slotKeys[slot] = oldKeys[i];
+                slotNodes[slot] = oldNodes[i];
+            }
+        }
+    }
+}
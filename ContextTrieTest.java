@@ -0,0 +1,52 @@
+package org.cis1200;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Tests for ContextTrie */
+public class ContextTrieTest {
+
+    @Test
+    public void testInternHandsOutDenseIds() {
+        ContextTrie trie = new ContextTrie();
+        assertEquals(1, trie.size());
+        int a = trie.intern(ContextTrie.ROOT, 7);
+        int ab = trie.intern(a, 8);
+        int start = trie.intern(ContextTrie.ROOT, -1);
+        assertEquals(1, a);
+        assertEquals(2, ab);
+        assertEquals(3, start);
+        assertEquals(4, trie.size());
+        assertEquals(a, trie.intern(ContextTrie.ROOT, 7));
+        assertEquals(4, trie.size());
+    }
+
+    @Test
+    public void testChild() {
+        ContextTrie trie = new ContextTrie();
+        int a = trie.intern(ContextTrie.ROOT, 7);
+        int ab = trie.intern(a, 8);
+        assertEquals(a, trie.child(ContextTrie.ROOT, 7));
+        assertEquals(ab, trie.child(a, 8));
+        assertEquals(-1, trie.child(ContextTrie.ROOT, 8));
+        assertEquals(-1, trie.child(ab, 7));
+        assertEquals(-1, trie.child(-1, 7));
+    }
+
+    @Test
+    public void testManyNodesSurviveRehash() {
+        ContextTrie trie = new ContextTrie();
+        int parent = ContextTrie.ROOT;
+        for (int word = 0; word < 10_000; word++) {
+            parent = trie.intern(parent, word % 100);
+        }
+        assertEquals(10_001, trie.size());
+        int node = ContextTrie.ROOT;
+        for (int word = 0; word < 10_000; word++) {
+            node = trie.child(node, word % 100);
+            assertEquals(word + 1, node);
+        }
+        assertTrue(trie.bytes() >= 10_000L * 12);
+    }
+}
@@ -0,0 +1,81 @@
+package org.cis1200;
+
+/**
+ * A CountMinSketch estimates how often each key has been seen, in a fixed
+ * amount of memory however many distinct keys there are.
+ * <p>
+ * It keeps DEPTH rows of counters; each key maps to one counter per row and
+ * its estimate is the smallest of them. Other keys sharing a counter can only
+ * add to it, so an estimate is never below the true count, and with W
+ * counters per row it is rarely more than about e/W of all the counts above
+ * it. Updates are conservative (only the counters that are currently the
+ * smallest are raised), which keeps overestimates smaller still.
+ */
+class CountMinSketch {
+    /** number of rows of counters */
+    static final int DEPTH = 4;
+
+    private final int[][] rows;
+    private final int mask;
+
+    /**
+     * Creates a sketch that uses about the given number of bytes.
+     *
+     * @param bytes - the memory to use, at least DEPTH * 4 * 64 bytes
+     * @throws IllegalArgumentException if bytes is too small
+     */
+    CountMinSketch(long bytes) {
+        long perRow = bytes / DEPTH / Integer.BYTES;
+        if (perRow < 64) {
+            throw new IllegalArgumentException("sketch budget too small: " + bytes);
+        }
+        int width = Integer.highestOneBit((int) Math.min(perRow, 1 << 30));
+        rows = new int[DEPTH][width];
+        mask = width - 1;
+    }
+
+    /**
+     * @return the number of bytes used by the counters
+     */
+    long bytes() {
+        return (long) DEPTH * rows[0].length * Integer.BYTES;
+    }
+
+    /**
+     * Counts occurrences of a key.
+     *
+     * @param key   - a well-mixed 64-bit key
+     * @param times - how many occurrences to add
+     * @return the key's new estimated count
+     */
+    int add(long key, int times) {
+        int estimate = estimate(key);
+        int updated = (int) Math.min(Integer.MAX_VALUE, (long) estimate + times);
+        for (int row = 0; row < DEPTH; row++) {
+            int slot = slot(key, row);
+            if (rows[row][slot] < updated) {
+                rows[row][slot] = updated;
+            }
+        }
+        return updated;
+    }
+
+    /**
+     * @param key - a well-mixed 64-bit key
+     * @return an estimate of how often key was added, never below the truth
+     */
+    int estimate(long key) {
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, rows[row][slot(key, row)]);
+        }
+        return estimate;
+    }
+
+    /** Double hashing: row i uses the low half plus i times the high half. */
+    private int slot(long key, int row) {
+        int low = (int) key;
+        int high = (int) (key >>> 32) | 1;
+        return (low + row * high) & mask;
+    }
+}
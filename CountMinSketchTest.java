@@ -0,0 +1,46 @@
+package org.cis1200;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/** Tests for CountMinSketch */
+public class CountMinSketchTest {
+
+    @Test
+    public void testEstimatesNeverBelowTruth() {
+        CountMinSketch sketch = new CountMinSketch(4096);
+        SplittableRandom random = new SplittableRandom(1200);
+        Map<Long, Integer> truth = new HashMap<>();
+        // far more distinct keys than counters, so many collide
+        for (int i = 0; i < 20_000; i++) {
+            long key = random.nextLong(2_000) * 0x9E3779B97F4A7C15L;
+            truth.merge(key, 1, Integer::sum);
+            sketch.add(key, 1);
+        }
+        for (Map.Entry<Long, Integer> e : truth.entrySet()) {
+            assertTrue(sketch.estimate(e.getKey()) >= e.getValue());
+        }
+    }
+
+    @Test
+    public void testExactWithoutCollisions() {
+        CountMinSketch sketch = new CountMinSketch(1 << 20);
+        assertEquals(0, sketch.estimate(42));
+        assertEquals(1, sketch.add(42, 1));
+        assertEquals(6, sketch.add(42, 5));
+        assertEquals(6, sketch.estimate(42));
+    }
+
+    @Test
+    public void testBudget() {
+        assertEquals(4096, new CountMinSketch(4096).bytes());
+        assertTrue(new CountMinSketch(5000).bytes() <= 5000);
+        assertThrows(IllegalArgumentException.class, () -> new CountMinSketch(100));
+    }
+}
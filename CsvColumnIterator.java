@@ -0,0 +1,257 @@
+package org.cis1200;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A CsvColumnIterator reads CSV records from a reader and returns the contents
+ * of one column of each record.
+ * <p>
+ * Records are parsed as described in RFC 4180: a field that starts with a
+ * double quote may contain commas, line breaks and escaped quotes ({@code ""}),
+ * so a single tweet may span several lines of the file. Records end at
+ * {@code \n}, {@code \r\n} or {@code \r}, matching BufferedReader.readLine(), and
+ * fields are not trimmed. The parser is lenient about malformed input:
+ * characters after a closing quote are kept, and an unterminated quoted field
+ * runs to the end of the input.
+ * <p>
+ * The reader is scanned through a reusable char buffer. Fields other than the
+ * requested column are skipped without being copied, so each record costs at
+ * most one String.
+ * <p>
+ * The reader is read one record ahead and closed once it is exhausted. If it
+ * cannot be read or closed, the constructor or next() throws an
+ * UncheckedIOException rather than ending the column early.
+ */
+public class CsvColumnIterator implements Iterator<String> {
+    private static final int BUFFER_SIZE = 8192;
+
+    /** source of the CSV data; null once the input is exhausted */
+    private Reader reader;
+    /** zero-indexed column to extract from each record */
+    private final int column;
+    private final char[] buffer;
+    private int position;
+    private int limit;
+
+    /** holds the characters of the requested column of the current record */
+    private final StringBuilder field = new StringBuilder();
+    /** whether nextValue holds a record that has not been returned yet */
+    private boolean next;
+    private String nextValue;
+
+    /**
+     * Creates a CsvColumnIterator for the reader.
+     *
+     * @param reader - a reader of CSV data
+     * @param column - the (zero-indexed) column to return from each record
+     * @throws IllegalArgumentException if reader is null
+     * @throws UncheckedIOException     if the first record cannot be read
+     */
+    public CsvColumnIterator(Reader reader, int column) {
+        if (reader == null) {
+            throw new IllegalArgumentException();
+        }
+        this.reader = reader;
+        this.column = column;
+        this.buffer = new char[BUFFER_SIZE];
+        this.next = readRecord();
+    }
+
+    /**
+     * Creates a CsvColumnIterator over CSV data that is already in memory.
+     *
+     * @param csv    - (non-null) CSV data
+     * @param length - the number of chars of csv to read
+     * @param column - the (zero-indexed) column to return from each record
+     */
+    CsvColumnIterator(char[] csv, int length, int column) {
+        this.column = column;
+        this.buffer = csv;
+        this.limit = length;
+        this.next = readRecord();
+    }
+
+    /**
+     * @return true if there is another record in the input
+     */
+    @Override
+    public boolean hasNext() {
+        return next;
+    }
+
+    /**
+     * Returns the requested column of the next record.
+     *
+     * @return the contents of the column, without enclosing quotes, or null if
+     *         the record has no such column
+     * @throws NoSuchElementException if there are no more records
+     * @throws UncheckedIOException   if the record after it cannot be read
+     */
+    @Override
+    public String next() {
+        if (!next) {
+            throw new NoSuchElementException();
+        }
+        if (Metrics.enabled()) {
+            Metrics.RECORDS.increment();
+        }
+        String value = nextValue;
+        next = readRecord();
+        return value;
+    }
+
+    /**
+     * Parses one record into nextValue.
+     *
+     * @return false if the input was already exhausted
+     */
+    private boolean readRecord() {
+        if (peek() == -1) {
+            return false;
+        }
+        field.setLength(0);
+        boolean found = false;
+        int col = 0;
+        int c;
+        while (true) {
+            boolean keep = col == column;
+            if (peek() == '"') {
+                read();
+                scanQuoted(keep);
+            }
+            c = scanUnquoted(keep);
+            found |= keep;
+            if (c != ',') {
+                break;
+            }
+            col++;
+        }
+        if (c == '\r' && peek() == '\n') {
+            read();
+        }
+        nextValue = found ? field.toString() : null;
+        return true;
+    }
+
+    /**
+     * Consumes the rest of a quoted section, up to and including its closing
+     * quote, appending its contents to field if keep is true.
+     */
+    private void scanQuoted(boolean keep) {
+        while (true) {
+            int start = position;
+            while (position < limit && buffer[position] != '"') {
+                position++;
+            }
+            if (keep) {
+                field.append(buffer, start, position - start);
+            }
+            if (position == limit) {
+                if (!fill()) {
+                    return;
+                }
+                continue;
+            }
+            position++;
+            if (peek() != '"') {
+                return;
+            }
+            // an escaped quote
+            read();
+            if (keep) {
+                field.append('"');
+            }
+        }
+    }
+
+    /**
+     * Consumes characters up to and including the next comma or line break,
+     * appending the characters before it to field if keep is true.
+     *
+     * @return the comma or line break character, or -1 at the end of input
+     */
+    private int scanUnquoted(boolean keep) {
+        while (true) {
+            int start = position;
+            while (position < limit) {
+                char ch = buffer[position];
+                if (ch == ',' || ch == '\n' || ch == '\r') {
+                    break;
+                }
+                position++;
+            }
+            if (keep) {
+                field.append(buffer, start, position - start);
+            }
+            if (position < limit) {
+                return buffer[position++];
+            }
+            if (!fill()) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * @return the next character of input, or -1 at the end of the input
+     */
+    private int read() {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++];
+    }
+
+    /**
+     * @return the next character of input without consuming it, or -1 at the
+     *         end of the input
+     */
+    private int peek() {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    /**
+     * Refills the buffer from the reader, closing the reader once it is
+     * exhausted.
+     *
+     * @return false if there is no more input
+     * @throws UncheckedIOException if the reader cannot be read or closed
+     */
+    private boolean fill() {
+        if (reader == null) {
+            return false;
+        }
+        try {
+            int n;
+            do {
+                n = reader.read(buffer, 0, buffer.length);
+            } while (n == 0);
+            if (n > 0) {
+                position = 0;
+                limit = n;
+                return true;
+            }
+            Reader exhausted = reader;
+            reader = null;
+            exhausted.close();
+        } catch (IOException e) {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+                reader = null;
+            }
+            throw new UncheckedIOException(e);
+        }
+        return false;
+    }
+}
@@ -0,0 +1,137 @@
+package org.cis1200;
+
+import org.junit.jupiter.api.Test;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tests for CsvColumnIterator */
+public class CsvColumnIteratorTest {
+
+    // A helper function to collect one column of every record
+    private static List<String> column(String csv, int column) {
+        CsvColumnIterator it = new CsvColumnIterator(
+                new BufferedReader(new StringReader(csv)), column
+        );
+        List<String> values = new ArrayList<>();
+        while (it.hasNext()) {
+            values.add(it.next());
+        }
+        return values;
+    }
+
+    @Test
+    public void testUnquotedRecords() {
+        String csv = "0, The end should come here.\n1, This comes from data!";
+        assertEquals(
+                Arrays.asList(" The end should come here.", " This comes from data!"),
+                column(csv, 1)
+        );
+    }
+
+    @Test
+    public void testQuotedFieldWithComma() {
+        String csv = "dog,2023,\"RT: In honor of #Day, please reply\"\n";
+        assertEquals(Arrays.asList("RT: In honor of #Day, please reply"), column(csv, 2));
+        assertEquals(Arrays.asList("2023"), column(csv, 1));
+    }
+
+    @Test
+    public void testEscapedQuotes() {
+        String csv = "a,\"she said \"\"hi\"\"\",c";
+        assertEquals(Arrays.asList("she said \"hi\""), column(csv, 1));
+        assertEquals(Arrays.asList("c"), column(csv, 2));
+    }
+
+    @Test
+    public void testEmbeddedNewline() {
+        String csv = "NOAA,1,\"Join us:\nhttps://t.co/x. #ocean\"\nNOAA,2,second";
+        assertEquals(Arrays.asList("Join us:\nhttps://t.co/x. #ocean", "second"), column(csv, 2));
+        assertEquals(Arrays.asList("1", "2"), column(csv, 1));
+    }
+
+    @Test
+    public void testLineEndings() {
+        String csv = "a,b\r\nc,d\re,f\n";
+        assertEquals(Arrays.asList("b", "d", "f"), column(csv, 1));
+    }
+
+    @Test
+    public void testMissingColumnIsNull() {
+        String csv = "a,b,c\nd\n,\n";
+        assertEquals(Arrays.asList("c", null, null), column(csv, 2));
+        assertEquals(Arrays.asList("b", null, ""), column(csv, 1));
+        assertEquals(Arrays.asList(null, null, null), column(csv, -1));
+    }
+
+    @Test
+    public void testEmptyLines() {
+        assertEquals(Arrays.asList("", "", "", ""), column("\n\n\n\n", 0));
+        assertEquals(new ArrayList<String>(), column("", 0));
+    }
+
+    @Test
+    public void testNextWhenEmpty() {
+        CsvColumnIterator it = new CsvColumnIterator(new StringReader(""), 0);
+        assertFalse(it.hasNext());
+        assertThrows(NoSuchElementException.class, it::next);
+    }
+
+    @Test
+    public void testNullReader() {
+        assertThrows(IllegalArgumentException.class, () -> new CsvColumnIterator((BufferedReader) null, 0));
+    }
+
+    @Test
+    public void testReadErrorIsThrown() {
+        boolean[] closed = new boolean[1];
+        // returns two records, then fails
+        Reader failing = new Reader() {
+            private boolean read;
+
+            @Override
+            public int read(char[] cbuf, int off, int len) throws IOException {
+                if (read) {
+                    throw new IOException("disk error");
+                }
+                read = true;
+                "0, a\n1, b\n".getChars(0, 10, cbuf, off);
+                return 10;
+            }
+
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+        CsvColumnIterator it = new CsvColumnIterator(failing, 1);
+        UncheckedIOException e = assertThrows(UncheckedIOException.class, () -> {
+            while (it.hasNext()) {
+                it.next();
+            }
+        });
+        assertEquals("disk error", e.getCause().getMessage());
+        assertTrue(closed[0]);
+    }
+
+    @Test
+    public void testMultiLineTweetsInFile() {
+        CsvColumnIterator it = new CsvColumnIterator(
+                FileLineIterator.fileToReader("./files/noaa_tweets.csv"), 2
+        );
+        int records = 0;
+        while (it.hasNext()) {
+            assertNotNull(it.next());
+            records++;
+        }
+        assertEquals(1000, records);
+    }
+}
@@ -3,7 +3,9 @@ package org.cis1200;
 import java.util.Iterator;
 import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.FileReader;
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.NoSuchElementException;
 
 public class FileLineIterator implements Iterator<String> {
@@ -39,7 +41,7 @@ public class FileLineIterator implements Iterator<String> {
 
     /**
      * Creates a FileLineIterator from a provided filePath by creating a
-     * FileReader and BufferedReader for the file.
+     * reader and BufferedReader for the file.
      * @param filePath - a string representing the file
      * @throws IllegalArgumentException if filePath is null or if the file
      *                                  doesn't exist
@@ -49,7 +51,9 @@ public class FileLineIterator implements Iterator<String> {
     }
 
     /**
-     * Takes in a filename and creates a BufferedReader.
+     * Takes in a filename and creates a BufferedReader. The file is decoded as
+     * UTF-8 (the encoding of the tweet CSVs) whatever the platform's default
+     * charset is.
      *
      * @param filePath - the path to the CSV file to be turned to a
      *                 BufferedReader
@@ -62,8 +66,10 @@ public class FileLineIterator implements Iterator<String> {
             throw new IllegalArgumentException();
         }
         try {
-            FileReader fileReader = new FileReader(filePath);
-            return new BufferedReader(fileReader);   
+            InputStreamReader fileReader = new InputStreamReader(
+                    new FileInputStream(filePath), StandardCharsets.UTF_8
+            );
+            return new BufferedReader(fileReader, 1 << 16);
         } catch (IOException e) {
             throw new IllegalArgumentException();
         }
@@ -99,6 +105,9 @@ public class FileLineIterator implements Iterator<String> {
     @Override
     public String next() {
         if (next) {
+            if (Metrics.enabled()) {
+                Metrics.LINES.increment();
+            }
             String current = nextLine;
             try {
                 nextLine = bufferedReader.readLine();
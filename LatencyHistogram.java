@@ -0,0 +1,99 @@
+package org.cis1200;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A LatencyHistogram counts request latencies so that percentiles such as the
+ * p99 can be reported without keeping every sample.
+ * <p>
+ * Latencies are counted in microseconds in log-linear buckets: every value
+ * below 16 has its own bucket, and each power of two above that is split into
+ * 16 equal buckets, so a reported percentile is never more than 1/16 above the
+ * true value. Recording is a single atomic increment, so any number of threads
+ * may record at once without locking.
+ */
+class LatencyHistogram {
+    /** sub-buckets per power of two, as a power of two */
+    private static final int SUB_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records one latency.
+     *
+     * @param nanos - the latency in nanoseconds; negative values count as 0
+     */
+    void record(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        counts.incrementAndGet(bucket(micros));
+        total.incrementAndGet();
+        max.accumulateAndGet(micros, Math::max);
+    }
+
+    /**
+     * @return the number of latencies recorded
+     */
+    long count() {
+        return total.get();
+    }
+
+    /**
+     * @return the largest latency recorded, in microseconds
+     */
+    long max() {
+        return max.get();
+    }
+
+    /**
+     * Returns an upper bound on the given percentile of the recorded
+     * latencies: at least that fraction of them were no longer.
+     *
+     * @param percentile - a percentile in (0, 100]
+     * @return the percentile in microseconds, or 0 if nothing was recorded
+     * @throws IllegalArgumentException if percentile is out of range
+     */
+    long percentile(double percentile) {
+        if (!(percentile > 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("percentile must be in (0, 100]");
+        }
+        long recorded = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            recorded += snapshot[i];
+        }
+        long rank = (long) Math.ceil(recorded * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank && snapshot[i] > 0) {
+                return Math.min(upperBound(i), max());
+            }
+        }
+        return 0;
+    }
+
+    private static int bucket(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int shift = exponent - SUB_BITS;
+        int sub = (int) (micros >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + sub;
+    }
+
+    private static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lower + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,49 @@
+package org.cis1200;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tests for LatencyHistogram */
+public class LatencyHistogramTest {
+
+    @Test
+    public void testEmpty() {
+        LatencyHistogram h = new LatencyHistogram();
+        assertEquals(0, h.count());
+        assertEquals(0, h.percentile(99));
+        assertEquals(0, h.max());
+    }
+
+    @Test
+    public void testSmallValuesAreExact() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (int micros = 1; micros <= 10; micros++) {
+            h.record(micros * 1000L);
+        }
+        assertEquals(10, h.count());
+        assertEquals(5, h.percentile(50));
+        assertEquals(10, h.percentile(99));
+        assertEquals(10, h.max());
+    }
+
+    @Test
+    public void testPercentilesWithinBucketError() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (int micros = 1; micros <= 100_000; micros++) {
+            h.record(micros * 1000L);
+        }
+        long p50 = h.percentile(50);
+        long p99 = h.percentile(99);
+        assertTrue(p50 >= 50_000 && p50 <= 50_000 * 17 / 16, "p50 was " + p50);
+        assertTrue(p99 >= 99_000 && p99 <= 100_000, "p99 was " + p99);
+        assertEquals(100_000, h.percentile(100));
+    }
+
+    @Test
+    public void testPercentileOutOfRange() {
+        LatencyHistogram h = new LatencyHistogram();
+        assertThrows(IllegalArgumentException.class, () -> h.percentile(0));
+        assertThrows(IllegalArgumentException.class, () -> h.percentile(101));
+    }
+}
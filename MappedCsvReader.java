@@ -0,0 +1,193 @@
+package org.cis1200;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A MappedCsvReader reads a UTF-8 CSV file through memory mappings instead of
+ * a Reader, for tweet dumps too large to push through a BufferedReader.
+ * <p>
+ * The file is cut into chunks of roughly CHUNK_SIZE bytes, each of which ends
+ * exactly at the end of a CSV record, so a quoted tweet that spans several
+ * lines is never split between chunks. Finding those boundaries takes one fast
+ * pass over the bytes, following the same quoting rules as CsvColumnIterator.
+ * Each chunk is then decoded from UTF-8 in one step and parsed with a
+ * CsvColumnIterator.
+ * <p>
+ * Chunks are independent, so {@link #columnStream} can be made parallel to
+ * decode and parse several chunks at once. {@link #columnIterator} adapts the
+ * same data to the Iterator interface used by FileLineIterator and
+ * CsvColumnIterator.
+ */
+public class MappedCsvReader {
+    /** target size of a chunk, in bytes */
+    static final int CHUNK_SIZE = 16 << 20;
+
+    // states of the record boundary scanner
+    private static final int FIELD_START = 0;
+    private static final int UNQUOTED = 1;
+    private static final int QUOTED = 2;
+    private static final int QUOTE_IN_QUOTED = 3;
+
+    /** record-aligned chunks of the file */
+    private final List<ByteBuffer> chunks;
+
+    /**
+     * Maps the CSV file at filePath.
+     *
+     * @param filePath - a string representing the file
+     * @throws IllegalArgumentException if filePath is null or if the file
+     *                                  doesn't exist or can't be read
+     */
+    public MappedCsvReader(String filePath) {
+        this(filePath, CHUNK_SIZE);
+    }
+
+    /**
+     * Maps the CSV file at filePath, using chunks of about chunkSize bytes.
+     *
+     * @param filePath  - a string representing the file
+     * @param chunkSize - the target size of a chunk, in bytes
+     * @throws IllegalArgumentException if filePath is null or if the file
+     *                                  doesn't exist or can't be read
+     */
+    MappedCsvReader(String filePath, int chunkSize) {
+        if (filePath == null || chunkSize <= 0) {
+            throw new IllegalArgumentException();
+        }
+        List<ByteBuffer> mapped = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(toPath(filePath), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long start = 0;
+            int window = chunkSize;
+            while (start < size) {
+                int length = (int) Math.min(window, size - start);
+                boolean last = start + length == size;
+                MappedByteBuffer buffer = channel.map(
+                        FileChannel.MapMode.READ_ONLY, start, length
+                );
+                int end = last ? length : lastRecordEnd(buffer, length);
+                if (end == 0) {
+                    // one record fills the whole window: look further
+                    if (window > Integer.MAX_VALUE / 2) {
+                        throw new IllegalArgumentException("CSV record too large");
+                    }
+                    window *= 2;
+                    continue;
+                }
+                mapped.add(buffer.slice(0, end));
+                start += end;
+                window = chunkSize;
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+        this.chunks = Collections.unmodifiableList(mapped);
+    }
+
+    /**
+     * @return the number of chunks the file was cut into
+     */
+    public int chunks() {
+        return chunks.size();
+    }
+
+    /**
+     * Returns the requested column of every record in the file, in order. The
+     * stream decodes one chunk at a time; if it is made parallel, chunks are
+     * decoded and parsed concurrently.
+     *
+     * @param column - the (zero-indexed) column to return from each record
+     * @return a sequential Stream of column values, with null for records that
+     *         have no such column
+     */
+    public Stream<String> columnStream(int column) {
+        return chunks.stream().flatMap(chunk -> {
+            CharBuffer chars = StandardCharsets.UTF_8.decode(chunk.duplicate());
+            Iterator<String> values = new CsvColumnIterator(
+                    chars.array(), chars.limit(), column
+            );
+            return StreamSupport.stream(
+                    Spliterators.spliteratorUnknownSize(values, Spliterator.ORDERED),
+                    false
+            );
+        });
+    }
+
+    /**
+     * Returns the requested column of every record in the file, in order.
+     *
+     * @param column - the (zero-indexed) column to return from each record
+     * @return an Iterator over the column values, with null for records that
+     *         have no such column
+     */
+    public Iterator<String> columnIterator(int column) {
+        return columnStream(column).iterator();
+    }
+
+    /**
+     * Finds the end of the last complete CSV record in the first length bytes
+     * of buffer, which must start at the beginning of a record.
+     *
+     * @return the position just after the last record terminator, or 0 if
+     *         there is none
+     */
+    static int lastRecordEnd(ByteBuffer buffer, int length) {
+        int state = FIELD_START;
+        int end = 0;
+        for (int i = 0; i < length; i++) {
+            byte b = buffer.get(i);
+            if (state == QUOTED) {
+                if (b == '"') {
+                    state = QUOTE_IN_QUOTED;
+                }
+                continue;
+            }
+            if (b == '"') {
+                // opens a quoted field, or escapes a quote inside one
+                state = state == UNQUOTED ? UNQUOTED : QUOTED;
+            } else if (b == ',') {
+                state = FIELD_START;
+            } else if (b == '\n') {
+                state = FIELD_START;
+                end = i + 1;
+            } else if (b == '\r') {
+                if (i + 1 == length) {
+                    // the matching '\n' may be in the next window
+                    break;
+                }
+                state = FIELD_START;
+                if (buffer.get(i + 1) != '\n') {
+                    end = i + 1;
+                }
+            } else {
+                state = UNQUOTED;
+            }
+        }
+        return end;
+    }
+
+    private static Path toPath(String filePath) {
+        try {
+            return Paths.get(filePath);
+        } catch (InvalidPathException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+}
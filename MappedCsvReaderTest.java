@@ -0,0 +1,115 @@
+package org.cis1200;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/** Tests for MappedCsvReader */
+public class MappedCsvReaderTest {
+
+    // A helper function to read a column with a CsvColumnIterator
+    private static List<String> readColumn(String filePath, int column) {
+        CsvColumnIterator it = new CsvColumnIterator(
+                FileLineIterator.fileToReader(filePath), column
+        );
+        List<String> values = new ArrayList<>();
+        while (it.hasNext()) {
+            values.add(it.next());
+        }
+        return values;
+    }
+
+    // A helper function to write CSV data to a temporary file
+    private static String tempFile(String csv) throws IOException {
+        File file = File.createTempFile("tweets", ".csv");
+        file.deleteOnExit();
+        Files.write(file.toPath(), csv.getBytes(StandardCharsets.UTF_8));
+        return file.getPath();
+    }
+
+    @Test
+    public void testMatchesCsvColumnIteratorOnBundledFiles() {
+        String[] files = {
+            "./files/noaa_tweets.csv", "./files/dog_feelings_tweets.csv",
+            "./files/big_ben_clock_tweets.csv", "./files/simple_test_data.csv",
+            "./files/empty.csv"
+        };
+        for (String file : files) {
+            for (int chunkSize : new int[] { 1, 64, 1000, MappedCsvReader.CHUNK_SIZE }) {
+                MappedCsvReader csv = new MappedCsvReader(file, chunkSize);
+                for (int column = 0; column < 3; column++) {
+                    assertEquals(
+                            readColumn(file, column),
+                            csv.columnStream(column).collect(Collectors.toList())
+                    );
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testChunksEndAtRecordBoundaries() throws IOException {
+        String csv = "a,\"one\ntwo, \"\"three\"\"\"\r\nb,x\"y\nc,\"\"\rd,\"\n\n\",e\n";
+        String path = tempFile(csv);
+        MappedCsvReader mapped = new MappedCsvReader(path, 4);
+        assertTrue(mapped.chunks() > 1);
+        assertEquals(readColumn(path, 1), mapped.columnStream(1).collect(Collectors.toList()));
+        assertEquals("[one\ntwo, \"three\", x\"y, , \n\n]", readColumn(path, 1).toString());
+    }
+
+    @Test
+    public void testParallelStreamKeepsOrder() {
+        MappedCsvReader csv = new MappedCsvReader("./files/noaa_tweets.csv", 4096);
+        assertTrue(csv.chunks() > 1);
+        assertEquals(
+                readColumn("./files/noaa_tweets.csv", 2),
+                csv.columnStream(2).parallel().collect(Collectors.toList())
+        );
+    }
+
+    @Test
+    public void testColumnIterator() {
+        MappedCsvReader csv = new MappedCsvReader("./files/simple_test_data.csv");
+        Iterator<String> it = csv.columnIterator(1);
+        assertEquals(" The end should come here.", it.next());
+        assertEquals(" This comes from data with no duplicate words!", it.next());
+        assertFalse(it.hasNext());
+    }
+
+    @Test
+    public void testLastRecordEnd() {
+        ByteBuffer bytes = ByteBuffer.wrap("a,b\nc,\"d\ne\"\nf\r".getBytes(StandardCharsets.UTF_8));
+        assertEquals(4, MappedCsvReader.lastRecordEnd(bytes, 9));
+        assertEquals(12, MappedCsvReader.lastRecordEnd(bytes, 14));
+        assertEquals(0, MappedCsvReader.lastRecordEnd(bytes, 3));
+    }
+
+    @Test
+    public void testMissingFile() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new MappedCsvReader("./files/no_such_file.csv")
+        );
+        assertThrows(IllegalArgumentException.class, () -> new MappedCsvReader(null));
+    }
+
+    @Test
+    public void testTwitterBotFromMappedFile() {
+        MappedCsvReader csv = new MappedCsvReader("./files/dog_feelings_tweets.csv", 2048);
+        TwitterBot mapped = new TwitterBot(csv, 2, new RandomNumberGenerator(), true);
+        TwitterBot read = new TwitterBot(
+                FileLineIterator.fileToReader("./files/dog_feelings_tweets.csv"), 2
+        );
+        assertEquals(read.mc.toString(), mapped.mc.toString());
+    }
+}
@@ -0,0 +1,575 @@
+package org.cis1200;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A MappedModel is a read-only model whose words and counts stay in a
+ * memory-mapped file instead of on the heap. The heap holds only a few buffer
+ * objects however large the model is, so a huge model adds nothing to the
+ * work of the garbage collector. Mapped pages are shared through the page
+ * cache, so several bot processes that open the same file on one host hold
+ * one copy of it between them.
+ * <p>
+ * The file is laid out for sampling in place, rather than for loading like a
+ * ModelSnapshot. It holds the running totals of each row instead of the
+ * counts, so a pick is the same binary search that TransitionTable.pick does,
+ * and it holds a hash table of word ids, so words can be looked up without
+ * building a Vocabulary. All numbers are big-endian ints:
+ * <pre>
+ *   magic "MKMM", version, V (words), S (start words), E (transitions),
+ *   B (bytes of word text), H (hash table slots), 0
+ *   int[V + 1]  byte offset of each word in the word text
+ *   int[H]      word ids by String.hashCode(), or -1 for an empty slot
+ *   int[S]      start word ids, int[S] running totals of their counts
+ *   int[V + 1]  row offsets, int[E] successor ids, int[E] running totals
+ *   byte[B]     UTF-8 word text
+ * </pre>
+ * Each section is mapped on its own, so the file may be larger than 2 GB as
+ * long as each section is smaller.
+ * <p>
+ * Walks through a MappedModel give exactly the words that walks through the
+ * MarkovModel of the same chain give, for the same NumberGenerator. Like a
+ * MarkovModel, a MappedModel may be walked by any number of cursors on
+ * different threads at once.
+ * <p>
+ * Opening a model reads only the header, so the first tweet can be generated
+ * right away however large the model is. A word's successors (their ids and
+ * running totals) are decoded from the file the first time a walk reaches
+ * the word, and kept in a cache of a bounded number of rows; each
+ * successor's String is decoded the first time it is picked. The
+ * cache is direct-mapped: row w goes in slot w % size, replacing whatever row
+ * was there. A lookup is one array read, with no locking or bookkeeping, and
+ * threads that race to decode the same row merely decode it twice. A bot
+ * that only ever walks a small part of the chain only decodes that part, and
+ * a walk through rows that are already cached allocates nothing.
+ * <p>
+ * Since rows are only read when a walk reaches them, they are also checked
+ * then: a row whose successor ids are out of range, or whose running totals
+ * do not increase, makes the walk throw an UncheckedIOException instead of
+ * picking a wrong word.
+ */
+public final class MappedModel {
+    /** "MKMM" */
+    static final int MAGIC = 0x4D4B4D4D;
+    static final int VERSION = 1;
+    /** the number of decoded rows a model keeps unless told otherwise */
+    public static final int DEFAULT_CACHED_ROWS = 4096;
+    private static final int HEADER_BYTES = 8 * Integer.BYTES;
+    private static final int EMPTY = -1;
+
+    /** A word's successors, decoded from the file. */
+    private static final class Row {
+        final int id;
+        final int[] targets;
+        /** running totals of the successors' counts */
+        final int[] totals;
+        /**
+         * the successors' Strings, each decoded the first time it is picked;
+         * filled in without locking, which is safe because Strings are
+         * immutable
+         */
+        final String[] words;
+
+        Row(int id, int[] targets, int[] totals, String[] words) {
+            this.id = id;
+            this.targets = targets;
+            this.totals = totals;
+            this.words = words;
+        }
+    }
+
+    private final long fileBytes;
+    private final int words;
+    private final int starts;
+    private final IntBuffer textOffsets;
+    private final IntBuffer slots;
+    private final IntBuffer startTargets;
+    private final IntBuffer startTotals;
+    private final IntBuffer offsets;
+    private final IntBuffer targets;
+    private final IntBuffer totals;
+    private final ByteBuffer text;
+
+    /**
+     * decoded rows, row w in slot w % length; read and written without
+     * locking, which is safe because a Row's fields are final
+     */
+    private final Row[] cache;
+    /** the decoded start words, or null until the first walk starts */
+    private volatile Row startRow;
+    private final LongAdder decodedRows = new LongAdder();
+
+    private MappedModel(FileChannel channel, int cachedRows) throws IOException {
+        cache = new Row[cachedRows];
+        fileBytes = channel.size();
+        ByteBuffer header = map(channel, 0, HEADER_BYTES);
+        if (header.getInt() != MAGIC) {
+            throw new IOException("not a mapped model");
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw new IOException("unsupported mapped model version " + version);
+        }
+        words = header.getInt();
+        starts = header.getInt();
+        int edges = header.getInt();
+        int textBytes = header.getInt();
+        int slotCount = header.getInt();
+        if (words < 0 || starts < 0 || edges < 0 || textBytes < 0 || slotCount < 1
+                || Integer.bitCount(slotCount) != 1) {
+            throw new IOException("corrupt mapped model header");
+        }
+
+        long position = HEADER_BYTES;
+        textOffsets = mapInts(channel, position, words + 1);
+        position += (words + 1L) * Integer.BYTES;
+        slots = mapInts(channel, position, slotCount);
+        position += (long) slotCount * Integer.BYTES;
+        startTargets = mapInts(channel, position, starts);
+        position += (long) starts * Integer.BYTES;
+        startTotals = mapInts(channel, position, starts);
+        position += (long) starts * Integer.BYTES;
+        offsets = mapInts(channel, position, words + 1);
+        position += (words + 1L) * Integer.BYTES;
+        targets = mapInts(channel, position, edges);
+        position += (long) edges * Integer.BYTES;
+        totals = mapInts(channel, position, edges);
+        position += (long) edges * Integer.BYTES;
+        text = map(channel, position, textBytes);
+        if (position + textBytes != fileBytes || offsets.get(words) != edges
+                || textOffsets.get(words) != textBytes) {
+            throw new IOException("corrupt mapped model");
+        }
+    }
+
+    /**
+     * Maps a model file written by {@link #save}, caching up to
+     * DEFAULT_CACHED_ROWS decoded rows.
+     *
+     * @param filePath - the path of the file
+     * @return the mapped model
+     * @throws IOException if the file cannot be mapped or is not a mapped
+     *                     model
+     */
+    public static MappedModel open(String filePath) throws IOException {
+        return open(filePath, DEFAULT_CACHED_ROWS);
+    }
+
+    /**
+     * Maps a model file written by {@link #save}. Only the header is read;
+     * the rest of the file's pages are loaded by the operating system as
+     * walks reach them.
+     *
+     * @param filePath   - the path of the file
+     * @param cachedRows - the most decoded rows to keep at once
+     * @return the mapped model
+     * @throws IllegalArgumentException if filePath is null or cachedRows is
+     *                                  less than 1
+     * @throws IOException              if the file cannot be mapped or is not
+     *                                  a mapped model
+     */
+    public static MappedModel open(String filePath, int cachedRows) throws IOException {
+        if (filePath == null || cachedRows < 1) {
+            throw new IllegalArgumentException();
+        }
+        // the mappings stay valid after the channel is closed
+        try (FileChannel channel = FileChannel.open(Path.of(filePath), StandardOpenOption.READ)) {
+            return new MappedModel(channel, cachedRows);
+        } catch (RuntimeException e) {
+            // truncated files and out-of-range offsets
+            throw new IOException("corrupt mapped model", e);
+        }
+    }
+
+    private static ByteBuffer map(FileChannel channel, long position, long length)
+            throws IOException {
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("mapped model section too large to map");
+        }
+        if (position + length > channel.size()) {
+            throw new IOException("truncated mapped model");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+    }
+
+    private static IntBuffer mapInts(FileChannel channel, long position, int length)
+            throws IOException {
+        return map(channel, position, (long) length * Integer.BYTES).asIntBuffer();
+    }
+
+    /**
+     * Writes a MarkovChain's training data as a mapped model file, replacing
+     * the file if it already exists. The file is written to a temporary file
+     * first and then moved into place, so processes that have the old file
+     * mapped keep reading it unchanged.
+     *
+     * @param mc       - the MarkovChain to save
+     * @param filePath - the path of the file
+     * @throws IOException if the file cannot be written
+     */
+    public static void save(MarkovChain mc, String filePath) throws IOException {
+        if (mc == null || filePath == null) {
+            throw new IllegalArgumentException();
+        }
+        Path path = Path.of(filePath);
+        Path temporary = Path.of(filePath + ".tmp");
+        try (FileChannel channel = FileChannel.open(
+                temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING
+        )) {
+            write(mc, new DataOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16)
+            ));
+            channel.force(true);
+        }
+        Files.move(
+                temporary, path, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE
+        );
+    }
+
+    private static void write(MarkovChain mc, DataOutputStream data) throws IOException {
+        Vocabulary vocabulary = mc.vocabulary;
+        int words = vocabulary.size();
+        byte[][] text = new byte[words][];
+        int textBytes = 0;
+        for (int id = 0; id < words; id++) {
+            text[id] = vocabulary.word(id).getBytes(StandardCharsets.UTF_8);
+            textBytes += text[id].length;
+        }
+        int slotCount = Integer.highestOneBit(Math.max(2 * words, 1)) * 2;
+        int[] slots = new int[slotCount];
+        Arrays.fill(slots, EMPTY);
+        for (int id = 0; id < words; id++) {
+            int slot = mix(vocabulary.word(id).hashCode()) & (slotCount - 1);
+            while (slots[slot] != EMPTY) {
+                slot = (slot + 1) & (slotCount - 1);
+            }
+            slots[slot] = id;
+        }
+        TransitionTable startTable = mc.startTable;
+        boolean started = startTable.hasSuccessors(MarkovChain.START_ROW);
+        int startBegin = started ? startTable.begin(MarkovChain.START_ROW) : 0;
+        int starts = started ? startTable.end(MarkovChain.START_ROW) - startBegin : 0;
+        int[] offsets = mc.transitions.offsets();
+        int edges = offsets[offsets.length - 1];
+
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(words);
+        data.writeInt(starts);
+        data.writeInt(edges);
+        data.writeInt(textBytes);
+        data.writeInt(slotCount);
+        data.writeInt(0);
+        int position = 0;
+        data.writeInt(position);
+        for (byte[] word : text) {
+            position += word.length;
+            data.writeInt(position);
+        }
+        for (int slot : slots) {
+            data.writeInt(slot);
+        }
+        for (int p = startBegin; p < startBegin + starts; p++) {
+            data.writeInt(startTable.target(p));
+        }
+        int startTotal = 0;
+        for (int p = startBegin; p < startBegin + starts; p++) {
+            startTotal += startTable.count(p);
+            data.writeInt(startTotal);
+        }
+        // a new word may have been interned after the rows were compiled
+        for (int id = 0; id <= words; id++) {
+            data.writeInt(offsets[Math.min(id, offsets.length - 1)]);
+        }
+        int[] targets = mc.transitions.targets();
+        for (int p = 0; p < edges; p++) {
+            data.writeInt(targets[p]);
+        }
+        int[] counts = mc.transitions.counts();
+        for (int row = 0; row + 1 < offsets.length; row++) {
+            int total = 0;
+            for (int p = offsets[row]; p < offsets[row + 1]; p++) {
+                total += counts[p];
+                data.writeInt(total);
+            }
+        }
+        for (byte[] word : text) {
+            data.write(word);
+        }
+        data.flush();
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Opens a new walk through this model. The cursor has no upcoming word
+     * until it is reset.
+     *
+     * @param ng - A (non-null) NumberGenerator used only by this cursor
+     * @return a new cursor
+     * @throws IllegalArgumentException - when ng is null
+     */
+    public Cursor cursor(NumberGenerator ng) {
+        return new Cursor(ng);
+    }
+
+    /**
+     * @return the number of distinct words in the model
+     */
+    public int words() {
+        return words;
+    }
+
+    /**
+     * @return the size of the mapped file in bytes
+     */
+    public long bytes() {
+        return fileBytes;
+    }
+
+    /**
+     * @return the number of rows decoded so far, counting rows decoded again
+     *         after they were evicted from the cache
+     */
+    public long decodedRows() {
+        return decodedRows.sum();
+    }
+
+    /**
+     * @param word - a word
+     * @return true if the model was trained on word
+     */
+    public boolean contains(String word) {
+        return word != null && id(word) >= 0;
+    }
+
+    /**
+     * Looks a word up in the file's hash table, comparing its UTF-8 bytes with
+     * the word text in place.
+     *
+     * @return the id of word, or -1 if the model has no such word
+     */
+    int id(String word) {
+        byte[] bytes = word.getBytes(StandardCharsets.UTF_8);
+        int mask = slots.capacity() - 1;
+        for (int slot = mix(word.hashCode()) & mask; ; slot = (slot + 1) & mask) {
+            int id = slots.get(slot);
+            if (id == EMPTY) {
+                return -1;
+            }
+            if (matches(id, bytes)) {
+                return id;
+            }
+        }
+    }
+
+    private boolean matches(int id, byte[] bytes) {
+        int start = textOffsets.get(id);
+        if (textOffsets.get(id + 1) - start != bytes.length) {
+            return false;
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            if (text.get(start + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param id - a word id
+     * @return the word with that id, decoded from the file
+     */
+    String word(int id) {
+        int start = textOffsets.get(id);
+        byte[] bytes = new byte[textOffsets.get(id + 1) - start];
+        text.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the decoded successors of a word, or null if it has none
+     */
+    private Row row(int id) {
+        if (id < 0 || id >= words || offsets.get(id) == offsets.get(id + 1)) {
+            return null;
+        }
+        int slot = id % cache.length;
+        Row row = cache[slot];
+        if (row == null || row.id != id) {
+            row = decode(id, offsets.get(id), offsets.get(id + 1), targets, totals);
+            cache[slot] = row;
+        }
+        return row;
+    }
+
+    /**
+     * @return the decoded start words, or null if nothing was trained
+     */
+    private Row startRow() {
+        if (starts == 0) {
+            return null;
+        }
+        Row row = startRow;
+        if (row == null) {
+            row = decode(-1, 0, starts, startTargets, startTotals);
+            startRow = row;
+        }
+        return row;
+    }
+
+    /**
+     * Reads the successors in [begin, end) from the file, checking that each
+     * is a word of the model and that their running totals are positive and
+     * increasing, as pick needs.
+     *
+     * @throws UncheckedIOException if the row is damaged
+     */
+    private Row decode(int id, int begin, int end, IntBuffer ids, IntBuffer runningTotals) {
+        if (begin < 0 || end < begin || end > ids.capacity()) {
+            throw corrupt(id);
+        }
+        int length = end - begin;
+        int[] rowTargets = new int[length];
+        int[] rowTotals = new int[length];
+        String[] rowWords = new String[length];
+        ids.get(begin, rowTargets);
+        runningTotals.get(begin, rowTotals);
+        int previous = 0;
+        for (int p = 0; p < length; p++) {
+            if (rowTargets[p] < 0 || rowTargets[p] >= words || rowTotals[p] <= previous) {
+                throw corrupt(id);
+            }
+            previous = rowTotals[p];
+        }
+        decodedRows.increment();
+        return new Row(id, rowTargets, rowTotals, rowWords);
+    }
+
+    private static UncheckedIOException corrupt(int id) {
+        return new UncheckedIOException(new IOException(
+                id < 0 ? "corrupt mapped model start words" : "corrupt mapped model row " + id
+        ));
+    }
+
+    /**
+     * Picks a successor from a row at random, weighted by its counts, drawing
+     * exactly one number from ng as TransitionTable.pick does.
+     *
+     * @return the position of the successor in the row
+     */
+    private static int pick(Row row, NumberGenerator ng) {
+        int[] runningTotals = row.totals;
+        int index = ng.next(runningTotals[runningTotals.length - 1]);
+        // find the first position whose running total exceeds index
+        int low = 0;
+        int high = runningTotals.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (runningTotals[mid] > index) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * A Cursor is one walk through a MappedModel, with the same contract as
+     * a ChainCursor. A single cursor is not thread-safe.
+     */
+    public final class Cursor implements SentenceWalk {
+        private final NumberGenerator ng;
+        private String nextWord = MarkovChain.END_TOKEN;
+        /** id of nextWord, or -1 if the model has no such word */
+        private int nextId = -1;
+
+        private Cursor(NumberGenerator ng) {
+            if (ng == null) {
+                throw new IllegalArgumentException(
+                        "NumberGenerator input cannot be null"
+                );
+            }
+            this.ng = ng;
+        }
+
+        /**
+         * Begins a walk at start, so that the next call to next() returns
+         * start.
+         *
+         * @param start - the first word of the walk
+         * @throws IllegalArgumentException - when parameter is null.
+         */
+        public void reset(String start) {
+            if (start == null) {
+                throw new IllegalArgumentException("start cannot be null");
+            }
+            nextWord = start;
+            nextId = id(start);
+        }
+
+        @Override
+        public void reset() {
+            advance(startRow());
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextWord != null && !nextWord.equals(MarkovChain.END_TOKEN);
+        }
+
+        @Override
+        public String peek() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return nextWord;
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            String result = nextWord;
+            advance(row(nextId));
+            return result;
+        }
+
+        /** Picks the upcoming word from row, or ends the walk if it is null. */
+        private void advance(Row row) {
+            if (row == null) {
+                nextWord = MarkovChain.END_TOKEN;
+                nextId = -1;
+            } else {
+                int position = pick(row, ng);
+                nextId = row.targets[position];
+                nextWord = row.words[position];
+                if (nextWord == null) {
+                    nextWord = word(nextId);
+                    row.words[position] = nextWord;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package org.cis1200;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/** Tests for MappedModel */
+public class MappedModelTest {
+
+    // A helper function that saves a MarkovChain to a temporary file and maps it
+    private static MappedModel saveAndOpen(MarkovChain mc) throws IOException {
+        File file = File.createTempFile("markov", ".mapped");
+        file.deleteOnExit();
+        MappedModel.save(mc, file.getPath());
+        return MappedModel.open(file.getPath());
+    }
+
+    // A helper function to train a MarkovChain on a bundled CSV file
+    private static MarkovChain train(String path) {
+        MarkovChain mc = new MarkovChain();
+        mc.train(TweetParser.streamTrainingData(FileLineIterator.fileToReader(path), 2));
+        return mc;
+    }
+
+    @Test
+    public void testWalksLikeMarkovModel() throws IOException {
+        MarkovChain mc = train("./files/dog_feelings_tweets.csv");
+        MappedModel mapped = saveAndOpen(mc);
+        Random original = new Random(1200);
+        ChainCursor expected = mc.toModel().cursor(original::nextInt);
+        Random copy = new Random(1200);
+        MappedModel.Cursor cursor = mapped.cursor(copy::nextInt);
+
+        assertEquals(mc.toModel().words(), mapped.words());
+        assertFalse(cursor.hasNext());
+        for (int sentence = 0; sentence < 50; sentence++) {
+            expected.reset();
+            cursor.reset();
+            while (expected.hasNext()) {
+                assertEquals(expected.peek(), cursor.peek());
+                assertEquals(expected.next(), cursor.next());
+            }
+            assertFalse(cursor.hasNext());
+        }
+    }
+
+    @Test
+    public void testTweetsMatchMarkovModel() throws IOException {
+        MarkovChain mc = train("./files/noaa_tweets.csv");
+        MappedModel mapped = saveAndOpen(mc);
+        MarkovModel model = mc.toModel();
+        for (long seed = 0; seed < 20; seed++) {
+            assertEquals(
+                    TwitterBot.generateTweetChars(model, new SplittableNumberGenerator(seed), 280),
+                    TwitterBot.generateTweetChars(mapped, new SplittableNumberGenerator(seed), 280)
+            );
+        }
+    }
+
+    @Test
+    public void testLookUpWords() throws IOException {
+        MarkovChain mc = new MarkovChain();
+        mc.train(Arrays.asList("caf\u00e9", "au", "lait").iterator());
+        mc.train(Arrays.asList("au", "revoir").iterator());
+        MappedModel mapped = saveAndOpen(mc);
+
+        assertTrue(mapped.contains("caf\u00e9"));
+        assertTrue(mapped.contains("revoir"));
+        assertFalse(mapped.contains("cafe"));
+        assertFalse(mapped.contains(null));
+        assertEquals("caf\u00e9", mapped.word(mapped.id("caf\u00e9")));
+
+        MappedModel.Cursor cursor = mapped.cursor(bound -> 0);
+        cursor.reset("caf\u00e9");
+        assertEquals("caf\u00e9", cursor.next());
+        assertEquals("au", cursor.next());
+        assertEquals("lait", cursor.next());
+        assertFalse(cursor.hasNext());
+        assertThrows(NoSuchElementException.class, cursor::next);
+
+        cursor.reset("unseen");
+        assertEquals("unseen", cursor.next());
+        assertFalse(cursor.hasNext());
+    }
+
+    @Test
+    public void testEmptyModel() throws IOException {
+        MappedModel mapped = saveAndOpen(new MarkovChain());
+        assertEquals(0, mapped.words());
+        MappedModel.Cursor cursor = mapped.cursor(new RandomNumberGenerator());
+        cursor.reset();
+        assertFalse(cursor.hasNext());
+        assertEquals("", TwitterBot.generateTweetChars(mapped, new RandomNumberGenerator(), 280));
+    }
+
+    @Test
+    public void testRejectsOtherFiles() throws IOException {
+        File file = File.createTempFile("markov", ".mapped");
+        file.deleteOnExit();
+        Files.write(file.toPath(), "0, not a model\n".getBytes(StandardCharsets.UTF_8));
+        assertThrows(IOException.class, () -> MappedModel.open(file.getPath()));
+
+        MappedModel.save(train("./files/simple_test_data.csv"), file.getPath());
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        Files.write(file.toPath(), Arrays.copyOf(bytes, bytes.length - 3));
+        assertThrows(IOException.class, () -> MappedModel.open(file.getPath()));
+
+        assertThrows(
+                IOException.class, () -> MappedModel.open("./files/no_such_file.mapped")
+        );
+    }
+
+    @Test
+    public void testRejectsDamagedRows() throws IOException {
+        MarkovChain mc = new MarkovChain();
+        mc.train(Arrays.asList("good", "dog").iterator());
+        File file = File.createTempFile("markov", ".mapped");
+        file.deleteOnExit();
+        MappedModel.save(mc, file.getPath());
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        ByteBuffer header = ByteBuffer.wrap(bytes);
+        int words = header.getInt(8);
+        int starts = header.getInt(12);
+        int edges = header.getInt(16);
+        int startTargets = (8 + words + 1 + header.getInt(24)) * Integer.BYTES;
+        int startTotals = startTargets + starts * Integer.BYTES;
+        int targets = startTotals + (starts + words + 1) * Integer.BYTES;
+        int totals = targets + edges * Integer.BYTES;
+
+        assertWalkFails(file, bytes, startTargets, words);
+        assertWalkFails(file, bytes, startTotals, 0);
+        assertWalkFails(file, bytes, targets, -1);
+        assertWalkFails(file, bytes, totals, -2);
+    }
+
+    // A helper function that changes one int of a mapped model file and checks
+    // that walking through the model reports the damage
+    private static void assertWalkFails(File file, byte[] bytes, int position, int value)
+            throws IOException {
+        ByteBuffer damaged = ByteBuffer.wrap(bytes.clone());
+        damaged.putInt(position, value);
+        Files.write(file.toPath(), damaged.array());
+        MappedModel.Cursor cursor = MappedModel.open(file.getPath()).cursor(
+                new RandomNumberGenerator()
+        );
+        assertThrows(UncheckedIOException.class, () -> {
+            cursor.reset();
+            while (cursor.hasNext()) {
+                cursor.next();
+            }
+        });
+    }
+
+    @Test
+    public void testDecodesOnlyRowsReached() throws IOException {
+        File file = File.createTempFile("markov", ".mapped");
+        file.deleteOnExit();
+        MappedModel.save(train("./files/noaa_tweets.csv"), file.getPath());
+        MappedModel mapped = MappedModel.open(file.getPath());
+        assertEquals(0, mapped.decodedRows());
+
+        MappedModel.Cursor cursor = mapped.cursor(new SplittableNumberGenerator(1200));
+        cursor.reset();
+        int sentenceWords = 0;
+        while (cursor.hasNext()) {
+            cursor.next();
+            sentenceWords++;
+        }
+        // the start words, and at most one row per word of the sentence
+        assertTrue(mapped.decodedRows() > 0);
+        assertTrue(mapped.decodedRows() <= sentenceWords + 1);
+        assertTrue(mapped.decodedRows() < mapped.words() / 10);
+
+        // the same walk again only reads cached rows
+        long decoded = mapped.decodedRows();
+        cursor = mapped.cursor(new SplittableNumberGenerator(1200));
+        cursor.reset();
+        while (cursor.hasNext()) {
+            cursor.next();
+        }
+        assertEquals(decoded, mapped.decodedRows());
+    }
+
+    @Test
+    public void testEvictingCacheWalksTheSame() throws IOException {
+        File file = File.createTempFile("markov", ".mapped");
+        file.deleteOnExit();
+        MarkovChain mc = train("./files/dog_feelings_tweets.csv");
+        MappedModel.save(mc, file.getPath());
+        MappedModel mapped = MappedModel.open(file.getPath(), 1);
+        MarkovModel model = mc.toModel();
+        for (long seed = 0; seed < 20; seed++) {
+            assertEquals(
+                    TwitterBot.generateTweetChars(model, new SplittableNumberGenerator(seed), 280),
+                    TwitterBot.generateTweetChars(mapped, new SplittableNumberGenerator(seed), 280)
+            );
+        }
+        assertThrows(
+                IllegalArgumentException.class, () -> MappedModel.open(file.getPath(), 0)
+        );
+    }
+}
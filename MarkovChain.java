@@ -1,6 +1,8 @@
 package org.cis1200;
 
+import java.io.IOException;
 import java.util.*;
+import java.util.stream.Stream;
 
 /**
  * A Markov Chain is a data structure that tracks the frequency with which one
@@ -70,20 +72,34 @@ import java.util.*;
  * The random choices are determined by a NumberGenerator.
  */
 public class MarkovChain implements Iterator<String> {
-    /** source of random numbers */
-    private NumberGenerator ng;
-    /** probability distribution of initial words in a sentence */
-    final ProbabilityDistribution<String> startWords;
-    /** for each word, probability distribution of next word in a sentence */
+    /** interned ids of every word seen in training */
+    final Vocabulary vocabulary;
+    /** successor counts for each word, keyed by vocabulary id */
+    final TransitionTable transitions;
+    /**
+     * initial words in a sentence, as the successors of START_ROW (see
+     * {@link #startWords()})
+     */
+    final TransitionTable startTable;
+    /** the row of startTable that holds the start words */
+    static final int START_ROW = 0;
+    /**
+     * for each word, probability distribution of next word in a sentence (a
+     * read-only view of transitions)
+     */
     final Map<String, ProbabilityDistribution<String>> chain;
     /** end of sentence marker */
     static final String END_TOKEN = "<END>";
 
     // add field(s) used in implementing the Iterator functionality
-    private String nextWord;
+    /** the walk that the Iterator methods advance */
+    private ChainCursor cursor;
+    /** the last model taken by toModel(), and the table versions it is of */
+    private MarkovModel model;
+    private long modelVersion;
 
     public MarkovChain() {
-        this(new RandomNumberGenerator());
+        this(new SplittableNumberGenerator());
     }
 
     /**
@@ -92,15 +108,33 @@ public class MarkovChain implements Iterator<String> {
      *           MarkovChain
      */
     public MarkovChain(NumberGenerator ng) {
-        if (ng == null) {
-            throw new IllegalArgumentException(
-                    "NumberGenerator input cannot be null"
-            );
-        }
-        this.chain = new TreeMap<>();
-        this.ng = ng;
-        this.startWords = new ProbabilityDistribution<>();
-        reset();
+        this.vocabulary = new Vocabulary();
+        this.transitions = new TransitionTable(vocabulary);
+        this.startTable = new TransitionTable(vocabulary);
+        this.chain = new ChainView();
+        this.cursor = new ChainCursor(vocabulary, transitions, startTable, ng);
+    }
+
+    /**
+     * Creates a MarkovChain from already counted training data, such as a
+     * snapshot read by ModelSnapshot. Like a MarkovChain that has just been
+     * trained, it has no next word until it is reset.
+     *
+     * @param ng          - A (non-null) NumberGenerator used to walk through
+     *                    the MarkovChain
+     * @param vocabulary  - the words of the MarkovChain
+     * @param transitions - successor counts for each word
+     * @param startTable  - start word counts, in row START_ROW
+     */
+    MarkovChain(
+            NumberGenerator ng, Vocabulary vocabulary, TransitionTable transitions,
+            TransitionTable startTable
+    ) {
+        this.vocabulary = vocabulary;
+        this.transitions = transitions;
+        this.startTable = startTable;
+        this.chain = new ChainView();
+        this.cursor = new ChainCursor(vocabulary, transitions, startTable, ng);
     }
 
     /**
@@ -115,12 +149,7 @@ public class MarkovChain implements Iterator<String> {
         if (first == null || second == null) {
             throw new IllegalArgumentException();
         }
-        ProbabilityDistribution<String> secondpd = chain.get(first);
-        if (secondpd == null) {
-            chain.put(first, new ProbabilityDistribution<>());
-            secondpd = chain.get(first);
-        }
-        secondpd.record(second);
+        transitions.record(vocabulary.intern(first), vocabulary.intern(second));
     }
 
     /**
@@ -138,8 +167,11 @@ public class MarkovChain implements Iterator<String> {
         if (!sentence.hasNext()) {
             return;
         }
+        if (Metrics.enabled()) {
+            Metrics.TRAINED_SENTENCES.increment();
+        }
         String start = sentence.next();
-        startWords.record(start);
+        startTable.record(START_ROW, vocabulary.intern(start));
         while (sentence.hasNext()) {
             String next = sentence.next();
             addBigram(start, next);
@@ -148,9 +180,142 @@ public class MarkovChain implements Iterator<String> {
         addBigram(start, END_TOKEN);
     }
 
+    /**
+     * Trains the MarkovChain on every sentence of a stream.
+     * <p>
+     * If the stream is parallel, each worker thread trains its own partial
+     * MarkovChain and the partial chains are then merged into this one, so
+     * sentences are cleaned and counted on all cores. The resulting counts
+     * are exactly those that training on the sentences one at a time would
+     * give.
+     *
+     * @param sentences - a stream of sentences of training data
+     * @throws IllegalArgumentException - when the stream is null
+     */
+    public void train(Stream<? extends List<String>> sentences) {
+        if (sentences == null) {
+            throw new IllegalArgumentException();
+        }
+        if (!Metrics.enabled()) {
+            trainAll(sentences);
+            return;
+        }
+        // includes reading and cleaning, since the stream is usually lazy
+        long start = System.nanoTime();
+        trainAll(sentences);
+        Metrics.TRAIN_NANOS.add(System.nanoTime() - start);
+    }
+
+    private void trainAll(Stream<? extends List<String>> sentences) {
+        if (!sentences.isParallel()) {
+            sentences.forEach(sentence -> train(sentence.iterator()));
+            return;
+        }
+        MarkovChain trained = sentences.collect(
+                MarkovChain::new,
+                (partial, sentence) -> partial.train(sentence.iterator()),
+                MarkovChain::merge
+        );
+        merge(trained);
+    }
+
+    /**
+     * Adds all of another MarkovChain's training data to this one. Afterwards,
+     * this MarkovChain has the same startWords and chain counts as if it had
+     * also been trained on every sentence the other one was trained on.
+     *
+     * @param other - the MarkovChain whose counts should be added
+     * @throws IllegalArgumentException - when other is null or is this
+     *                                  MarkovChain
+     */
+    public void merge(MarkovChain other) {
+        if (other == null || other == this) {
+            throw new IllegalArgumentException("cannot merge with " + other);
+        }
+        int[] ids = new int[other.vocabulary.size()];
+        for (int id = 0; id < ids.length; id++) {
+            ids[id] = vocabulary.intern(other.vocabulary.word(id));
+        }
+        transitions.addAll(other.transitions, ids);
+        TransitionTable starts = other.startTable;
+        if (starts.hasSuccessors(START_ROW)) {
+            for (int p = starts.begin(START_ROW); p < starts.end(START_ROW); p++) {
+                startTable.record(START_ROW, ids[starts.target(p)], starts.count(p));
+            }
+        }
+    }
+
+    /**
+     * Freezes the current training data into a MarkovModel that many threads
+     * can generate from at once (see {@link MarkovModel}). The model shares
+     * the compact count arrays with this MarkovChain rather than copying
+     * them; training this MarkovChain further does not change the model.
+     * <p>
+     * Until the MarkovChain is trained further, every call returns the same
+     * model, so the model's own caches (such as the reverse table that
+     * keyword tweets walk) are built only once.
+     *
+     * @return an immutable model of the training data so far
+     */
+    public MarkovModel toModel() {
+        long version = transitions.version() + startTable.version();
+        if (model == null || modelVersion != version) {
+            model = freeze();
+            modelVersion = version;
+        }
+        return model;
+    }
+
+    private MarkovModel freeze() {
+        Vocabulary words = new Vocabulary(vocabulary);
+        return new MarkovModel(
+                words,
+                new TransitionTable(
+                        words, transitions.offsets(), transitions.targets(), transitions.counts()
+                ),
+                new TransitionTable(
+                        words, startTable.offsets(), startTable.targets(), startTable.counts()
+                )
+        );
+    }
+
+    /**
+     * @return the walk that this MarkovChain's Iterator methods advance
+     */
+    ChainCursor cursor() {
+        return cursor;
+    }
+
+    /**
+     * Saves this MarkovChain's training data to a binary snapshot file (see
+     * {@link ModelSnapshot}).
+     *
+     * @param filePath - the path of the snapshot file
+     * @throws IOException if the file cannot be written
+     */
+    public void save(String filePath) throws IOException {
+        ModelSnapshot.save(this, filePath);
+    }
+
+    /**
+     * Loads a MarkovChain from a binary snapshot file written by
+     * {@link #save}. The loaded MarkovChain generates exactly the same
+     * sentences as the saved one, given the same NumberGenerator.
+     *
+     * @param filePath - the path of the snapshot file
+     * @param ng       - A (non-null) NumberGenerator used to walk through the
+     *                 MarkovChain
+     * @return the loaded MarkovChain
+     * @throws IOException if the file cannot be read or is not a snapshot
+     */
+    public static MarkovChain load(String filePath, NumberGenerator ng) throws IOException {
+        return ModelSnapshot.load(filePath, ng);
+    }
+
     /**
      * Returns the ProbabilityDistribution for a given token. Returns null if
-     * none exists.
+     * none exists. The distribution is a fresh copy of the recorded counts, so
+     * changing it does not change the MarkovChain.
      *
      * @param token - the token for which the ProbabilityDistribution is sought
      * @throws IllegalArgumentException - when parameter is null.
@@ -173,11 +338,7 @@ public class MarkovChain implements Iterator<String> {
      * @throws IllegalArgumentException - when parameter is null.
      */
     public void reset(String start) {
-        if (start == null) {
-            throw new IllegalArgumentException("start cannot be null");
-        }
-        // Complete this method.
-        nextWord = start;
+        cursor.reset(start);
     }
 
     /**
@@ -188,11 +349,7 @@ public class MarkovChain implements Iterator<String> {
      * start word selected by this call to reset().
      */
     public void reset() {
-        if (startWords.getTotal() == 0) {
-            reset(END_TOKEN);
-        } else {
-            reset(startWords.pick(ng));
-        }
+        cursor.reset();
     }
 
     /**
@@ -202,7 +359,19 @@ public class MarkovChain implements Iterator<String> {
      */
     @Override
     public boolean hasNext() {
-        return (nextWord != null) && !nextWord.equals(END_TOKEN); // Complete this method.
+        return cursor.hasNext();
+    }
+
+    /**
+     * Returns the word that the next call to {@link #next()} will return,
+     * without advancing the walk or drawing a random number.
+     *
+     * @return the upcoming word
+     * @throws NoSuchElementException if there are no more words on the walk
+     *                                through the chain.
+     */
+    String peek() {
+        return cursor.peek();
     }
 
     /**
@@ -213,16 +382,7 @@ public class MarkovChain implements Iterator<String> {
      */
     @Override
     public String next() {
-        if (!hasNext()) {
-            throw new NoSuchElementException();
-        }
-        String result = nextWord;
-        if (chain.get(result) == null) {
-            nextWord = END_TOKEN;
-        } else {
-            nextWord = chain.get(result).pick(ng);
-        }
-        return result; // Complete this method.
+        return cursor.next();
     }
 
     /**
@@ -257,6 +417,7 @@ public class MarkovChain implements Iterator<String> {
             throw new IllegalArgumentException("Invalid word list for fixDistribution");
         }
 
+        ProbabilityDistribution<String> startWords = startWords();
         String curWord = words.remove(0);
         if (startWords.count(curWord) < 1) {
             throw new IllegalArgumentException(
@@ -294,7 +455,99 @@ public class MarkovChain implements Iterator<String> {
             curWord = nextWord;
         }
 
-        ng = new ListNumberGenerator(probabilityNumbers);
+        ChainCursor fixed = new ChainCursor(
+                vocabulary, transitions, startTable, new ListNumberGenerator(probabilityNumbers)
+        );
+        if (cursor.hasNext()) {
+            fixed.reset(cursor.peek());
+        }
+        cursor = fixed;
+    }
+
+    /**
+     * Returns the probability distribution of initial words in a sentence. The
+     * distribution is a fresh copy of the recorded counts, so changing it does
+     * not change the MarkovChain.
+     *
+     * @return the start word distribution (empty if nothing has been trained)
+     */
+    ProbabilityDistribution<String> startWords() {
+        ProbabilityDistribution<String> pd = distribution(startTable, START_ROW);
+        return pd == null ? new ProbabilityDistribution<>() : pd;
+    }
+
+    /**
+     * Builds a ProbabilityDistribution holding the recorded successors of the
+     * word with the given id.
+     *
+     * @param id - a vocabulary id
+     * @return the successor distribution, or null if the word has none
+     */
+    private ProbabilityDistribution<String> distribution(int id) {
+        return distribution(transitions, id);
+    }
+
+    private ProbabilityDistribution<String> distribution(TransitionTable table, int row) {
+        if (!table.hasSuccessors(row)) {
+            return null;
+        }
+        ProbabilityDistribution<String> pd = new ProbabilityDistribution<>();
+        for (int p = table.begin(row); p < table.end(row); p++) {
+            String successor = vocabulary.word(table.target(p));
+            for (int i = 0; i < table.count(p); i++) {
+                pd.record(successor);
+            }
+        }
+        return pd;
+    }
+
+    /**
+     * A read-only Map view of the transitions, ordered by word like the
+     * TreeMap it replaces. Each lookup builds a fresh ProbabilityDistribution,
+     * so the view is meant for inspection and testing rather than generation.
+     */
+    private class ChainView extends AbstractMap<String, ProbabilityDistribution<String>> {
+        @Override
+        public ProbabilityDistribution<String> get(Object key) {
+            if (!(key instanceof String)) {
+                return null;
+            }
+            return distribution(vocabulary.id((String) key));
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof String
+                    && transitions.hasSuccessors(vocabulary.id((String) key));
+        }
+
+        @Override
+        public int size() {
+            return transitions.rows();
+        }
+
+        private Entry<String, ProbabilityDistribution<String>> entry(int id) {
+            return new SimpleImmutableEntry<>(vocabulary.word(id), distribution(id));
+        }
+
+        @Override
+        public Set<Entry<String, ProbabilityDistribution<String>>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public int size() {
+                    return transitions.rows();
+                }
+
+                @Override
+                public Iterator<Entry<String, ProbabilityDistribution<String>>> iterator() {
+                    int[] ids = vocabulary.sortedIds();
+                    return Arrays.stream(ids)
+                            .filter(transitions::hasSuccessors)
+                            .mapToObj(ChainView.this::entry)
+                            .iterator();
+                }
+            };
+        }
     }
 
     @Override
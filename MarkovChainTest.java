@@ -4,10 +4,12 @@ import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import java.util.NoSuchElementException;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 /** Tests for MarkovChain */
 public class MarkovChainTest {
@@ -217,4 +219,89 @@ public class MarkovChainTest {
         }
     }
 
+    /* **** ****** ****** COMPACT TRANSITION TESTS ***** ****** ***** */
+
+    @Test
+    public void testNextMatchesProbabilityDistributionPick() {
+        String[] sentences = { "a b c", "a c", "b a c", "a b b", "c a" };
+        MarkovChain mc = new MarkovChain();
+        for (String s : sentences) {
+            mc.train(Arrays.stream(s.split(" ")).iterator());
+        }
+        for (String word : new String[] { "a", "b", "c" }) {
+            ProbabilityDistribution<String> pd = mc.get(word);
+            for (int i = 0; i < pd.getTotal(); i++) {
+                MarkovChain walk = new MarkovChain(new ListNumberGenerator(new int[] { i, 0 }));
+                for (String s : sentences) {
+                    walk.train(Arrays.stream(s.split(" ")).iterator());
+                }
+                walk.reset(word);
+                walk.next();
+                String expected = pd.pick(new ListNumberGenerator(new int[] { i }));
+                if (expected.equals(MarkovChain.END_TOKEN)) {
+                    assertFalse(walk.hasNext());
+                } else {
+                    assertEquals(expected, walk.next());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testChainViewIsOrderedAndReadOnly() {
+        MarkovChain mc = new MarkovChain();
+        mc.train(Arrays.stream("b c a".split(" ")).iterator());
+        assertEquals("[a, b, c]", mc.chain.keySet().toString());
+        mc.chain.get("b").record("z");
+        assertEquals(0, mc.chain.get("b").count("z"));
+        assertThrows(UnsupportedOperationException.class, () -> mc.chain.remove("b"));
+    }
+
+    @Test
+    public void testTrainAfterWalkStarted() {
+        MarkovChain mc = new MarkovChain();
+        mc.reset("new");
+        mc.train(Arrays.stream("new word".split(" ")).iterator());
+        assertEquals("new", mc.next());
+        assertEquals("word", mc.next());
+        assertFalse(mc.hasNext());
+    }
+
+    /* **** ****** ****** MERGE AND PARALLEL TRAINING TESTS ***** ****** ***** */
+
+    @Test
+    public void testMergeMatchesSequentialTraining() {
+        String[] sentences = { "a b c", "b c", "c a b", "d", "a a a" };
+        MarkovChain sequential = new MarkovChain();
+        MarkovChain first = new MarkovChain();
+        MarkovChain second = new MarkovChain();
+        for (int i = 0; i < sentences.length; i++) {
+            sequential.train(Arrays.stream(sentences[i].split(" ")).iterator());
+            MarkovChain half = i % 2 == 0 ? first : second;
+            half.train(Arrays.stream(sentences[i].split(" ")).iterator());
+        }
+        second.merge(first);
+        assertEquals(sequential.toString(), second.toString());
+        assertEquals(sequential.startWords().getRecords(), second.startWords().getRecords());
+    }
+
+    @Test
+    public void testMergeWithItself() {
+        MarkovChain mc = new MarkovChain();
+        assertThrows(IllegalArgumentException.class, () -> mc.merge(mc));
+    }
+
+    @Test
+    public void testParallelTrainingMatchesSequential() {
+        List<List<String>> data = TweetParser.csvDataToTrainingData(
+                FileLineIterator.fileToReader("./files/noaa_tweets.csv"), 2
+        );
+        MarkovChain sequential = new MarkovChain();
+        sequential.train(data.stream());
+        MarkovChain parallel = new MarkovChain();
+        parallel.train(data.stream().parallel());
+        assertEquals(sequential.toString(), parallel.toString());
+        assertEquals(sequential.startWords().getRecords(), parallel.startWords().getRecords());
+    }
+
 }
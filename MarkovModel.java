@@ -0,0 +1,143 @@
+package org.cis1200;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A MarkovModel is a trained MarkovChain frozen so that it can be shared.
+ * <p>
+ * A MarkovChain both holds the training counts and walks through them, so it
+ * can only generate one sentence at a time and cannot be used from several
+ * threads. A MarkovModel holds only the counts, and never changes once it is
+ * created. To generate, each caller opens its own {@link ChainCursor} with its
+ * own NumberGenerator; any number of cursors can walk one model at once,
+ * without locks.
+ * <p>
+ * Models are created with {@link MarkovChain#toModel()}. Training the
+ * MarkovChain afterwards does not change models already taken from it.
+ */
+public final class MarkovModel {
+    private final Vocabulary vocabulary;
+    private final TransitionTable transitions;
+    private final TransitionTable startTable;
+    /**
+     * the reverse of transitions, built the first time a walk goes backwards;
+     * building it twice in a race does no harm
+     */
+    private volatile TransitionTable predecessors;
+
+    /**
+     * @param vocabulary  - the words of the model, which must not be changed
+     *                    afterwards
+     * @param transitions - successor counts for each word, in compact form
+     * @param startTable  - start word counts, in row MarkovChain.START_ROW
+     */
+    MarkovModel(
+            Vocabulary vocabulary, TransitionTable transitions, TransitionTable startTable
+    ) {
+        this.vocabulary = vocabulary;
+        this.transitions = transitions;
+        this.startTable = startTable;
+    }
+
+    /**
+     * Opens a new walk through this model. The cursor has no upcoming word
+     * until it is reset.
+     *
+     * @param ng - A (non-null) NumberGenerator used only by this cursor
+     * @return a new cursor
+     * @throws IllegalArgumentException - when ng is null
+     */
+    public ChainCursor cursor(NumberGenerator ng) {
+        return new ChainCursor(vocabulary, transitions, startTable, ng);
+    }
+
+    /**
+     * Walks backwards from a word to the start of a sentence, picking each
+     * earlier word at random in proportion to how often it came before the
+     * later one in training (or the start of a sentence, in proportion to how
+     * often the later word started one). Together with a forward walk from
+     * the word this gives a sentence through it, without generating sentences
+     * until one happens to contain it.
+     *
+     * @param word     - a word of the model, other than the end of sentence
+     *                 marker
+     * @param maxWords - the most words to walk back; a longer walk is cut off
+     *                 there, so it does not begin at a start word
+     * @param ng       - A (non-null) NumberGenerator that picks the words
+     * @return the words before word, in sentence order
+     * @throws IllegalArgumentException if word was never trained on
+     */
+    List<String> walkBack(String word, int maxWords, NumberGenerator ng) {
+        int id = vocabulary.id(word);
+        if (id < 0 || word.equals(MarkovChain.END_TOKEN)) {
+            throw new IllegalArgumentException("not in the model: " + word);
+        }
+        TransitionTable reverse = predecessors;
+        if (reverse == null) {
+            reverse = transitions.predecessors(startTable);
+            predecessors = reverse;
+        }
+        List<String> before = new ArrayList<>();
+        while (before.size() < maxWords) {
+            id = reverse.pick(id, ng);
+            if (id < 0) {
+                break;
+            }
+            before.add(vocabulary.word(id));
+        }
+        Collections.reverse(before);
+        return before;
+    }
+
+    /**
+     * @param word - a word
+     * @return true if word was trained on (the end of sentence marker does not
+     *         count)
+     */
+    public boolean contains(String word) {
+        return word != null && !word.equals(MarkovChain.END_TOKEN) && vocabulary.id(word) >= 0;
+    }
+
+    /**
+     * @return the number of distinct words in the model, counting the end of
+     *         sentence marker once anything has been trained
+     */
+    public int words() {
+        return vocabulary.size();
+    }
+
+    /**
+     * @return the number of distinct bigrams in the model
+     */
+    public int edges() {
+        return transitions.edges();
+    }
+
+    /**
+     * Estimates the heap used by the model: its count arrays, plus each
+     * word's String and its share of the vocabulary's hash table.
+     *
+     * @return the approximate size of the model in bytes
+     */
+    public long bytes() {
+        return tableBytes() + vocabulary.wordBytes();
+    }
+
+    /**
+     * @return the approximate size in bytes of the model without its words'
+     *         Strings, which may be shared with other models
+     */
+    long tableBytes() {
+        return transitions.bytes() + startTable.bytes() + vocabulary.bytes();
+    }
+
+    /**
+     * @param id - a word id from 0 to words() - 1
+     * @return the word with that id
+     */
+    String word(int id) {
+        return vocabulary.word(id);
+    }
+}
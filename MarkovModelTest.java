@@ -0,0 +1,188 @@
+package org.cis1200;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/** Tests for MarkovModel and ChainCursor */
+public class MarkovModelTest {
+
+    // A helper function to train a MarkovChain on a bundled CSV file
+    private static MarkovChain train(String path) {
+        MarkovChain mc = new MarkovChain();
+        mc.train(TweetParser.streamTrainingData(FileLineIterator.fileToReader(path), 2));
+        return mc;
+    }
+
+    // A helper function that walks a cursor through a number of sentences
+    private static List<String> walk(ChainCursor cursor, int sentences) {
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < sentences; i++) {
+            cursor.reset();
+            while (cursor.hasNext()) {
+                words.add(cursor.next());
+            }
+        }
+        return words;
+    }
+
+    @Test
+    public void testCursorWalksLikeChain() {
+        String path = "./files/dog_feelings_tweets.csv";
+        Random original = new Random(1200);
+        MarkovChain mc = new MarkovChain(original::nextInt);
+        mc.train(TweetParser.streamTrainingData(FileLineIterator.fileToReader(path), 2));
+        Random copy = new Random(1200);
+        ChainCursor cursor = train(path).toModel().cursor(copy::nextInt);
+
+        assertFalse(cursor.hasNext());
+        for (int sentence = 0; sentence < 50; sentence++) {
+            mc.reset();
+            cursor.reset();
+            while (mc.hasNext()) {
+                assertEquals(mc.next(), cursor.next());
+            }
+            assertFalse(cursor.hasNext());
+        }
+    }
+
+    @Test
+    public void testModelIgnoresLaterTraining() {
+        MarkovChain mc = new MarkovChain();
+        mc.train(Arrays.asList("a", "table").iterator());
+        MarkovModel model = mc.toModel();
+        mc.train(Arrays.asList("a", "banana").iterator());
+        mc.train(Arrays.asList("the", "end").iterator());
+
+        assertEquals(3, model.words());
+        assertEquals(Arrays.asList("a", "table", "a", "table"), walk(model.cursor(bound -> 0), 2));
+        ChainCursor cursor = model.cursor(new RandomNumberGenerator());
+        cursor.reset("the");
+        assertEquals("the", cursor.next());
+        assertFalse(cursor.hasNext());
+    }
+
+    @Test
+    public void testModelIsKeptUntilTrained() {
+        MarkovChain mc = new MarkovChain();
+        mc.train(Arrays.asList("a", "table").iterator());
+        MarkovModel model = mc.toModel();
+        assertSame(model, mc.toModel());
+        mc.reset();
+        mc.next();
+        assertSame(model, mc.toModel());
+
+        mc.train(Arrays.asList("a", "banana").iterator());
+        MarkovModel trained = mc.toModel();
+        assertNotSame(model, trained);
+        assertEquals(4, trained.words());
+        mc.merge(new MarkovChain());
+        assertSame(trained, mc.toModel());
+        MarkovChain other = new MarkovChain();
+        other.train(Arrays.asList("the", "end").iterator());
+        mc.merge(other);
+        assertEquals(6, mc.toModel().words());
+    }
+
+    @Test
+    public void testEmptyModel() {
+        ChainCursor cursor = new MarkovChain().toModel().cursor(new RandomNumberGenerator());
+        cursor.reset();
+        assertFalse(cursor.hasNext());
+        assertThrows(IllegalArgumentException.class, () -> cursor.reset(null));
+    }
+
+    @Test
+    public void testCursorRequiresGenerator() {
+        MarkovModel model = new MarkovChain().toModel();
+        assertThrows(IllegalArgumentException.class, () -> model.cursor(null));
+    }
+
+    @Test
+    public void testConcurrentCursorsMatchSequential() throws Exception {
+        MarkovModel model = train("./files/noaa_tweets.csv").toModel();
+        int threads = 8;
+        List<List<String>> expected = new ArrayList<>();
+        for (int seed = 0; seed < threads; seed++) {
+            expected.add(tweets(model, seed));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<String>>> results = new ArrayList<>();
+            for (int seed = 0; seed < threads; seed++) {
+                long s = seed;
+                results.add(pool.submit(() -> tweets(model, s)));
+            }
+            for (int seed = 0; seed < threads; seed++) {
+                assertEquals(expected.get(seed), results.get(seed).get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // A helper function that generates tweets from a model with a seeded generator
+    private static List<String> tweets(MarkovModel model, long seed) {
+        Random random = new Random(seed);
+        List<String> tweets = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            tweets.add(TwitterBot.generateTweetChars(model, random::nextInt, 280));
+        }
+        return tweets;
+    }
+
+    @Test
+    public void testWalkBackFollowsPredecessors() {
+        MarkovChain mc = new MarkovChain();
+        mc.train(Arrays.asList("a", "big", "dog").iterator());
+        mc.train(Arrays.asList("the", "big", "cat").iterator());
+        mc.train(Arrays.asList("dog").iterator());
+        MarkovModel model = mc.toModel();
+
+        Set<List<String>> seen = new HashSet<>();
+        Random random = new Random(1200);
+        for (int i = 0; i < 200; i++) {
+            seen.add(model.walkBack("dog", 10, random::nextInt));
+        }
+        // "dog" starts a sentence or follows "big", which follows "a" or "the"
+        assertEquals(
+                new HashSet<>(Arrays.asList(
+                        Arrays.asList(), Arrays.asList("a", "big"), Arrays.asList("the", "big")
+                )),
+                seen
+        );
+        assertEquals(Arrays.asList("big"), model.walkBack("cat", 1, random::nextInt));
+        assertEquals(Arrays.asList(), model.walkBack("the", 10, random::nextInt));
+    }
+
+    @Test
+    public void testWalkBackUnknownWord() {
+        MarkovChain mc = new MarkovChain();
+        mc.train(Arrays.asList("a", "dog").iterator());
+        MarkovModel model = mc.toModel();
+        NumberGenerator ng = new RandomNumberGenerator();
+        assertTrue(model.contains("dog"));
+        assertFalse(model.contains("cat"));
+        assertFalse(model.contains(MarkovChain.END_TOKEN));
+        assertThrows(IllegalArgumentException.class, () -> model.walkBack("cat", 10, ng));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> model.walkBack(MarkovChain.END_TOKEN, 10, ng)
+        );
+    }
+}
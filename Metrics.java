@@ -0,0 +1,319 @@
+package org.cis1200;
+
+import java.io.Closeable;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Metrics counts the work done at each stage of the bot, so that it is easy to
+ * see where time goes: reading CSV data, cleaning tweets, training and
+ * generating.
+ * <p>
+ * Counters are LongAdders, which any number of threads can add to without
+ * contending, and are added to once per line, tweet or sentence rather than
+ * per character. Generate calls are timed into a LatencyHistogram. The size
+ * of the last model passed to {@link #watch(MarkovModel)} is reported too.
+ * <p>
+ * Nothing is counted unless metrics are enabled, either with
+ * {@link #setEnabled(boolean)} or by starting the JVM with
+ * -Dtwitterbot.metrics=true. While they are disabled, each instrumented call
+ * costs one read of a static field and a branch that is never taken.
+ * <p>
+ * The metrics can be read from {@link #dump()}, printed periodically with
+ * {@link #dumpEvery(long, TimeUnit, PrintStream)}, or watched over JMX once
+ * {@link #register()} has been called.
+ */
+public final class Metrics {
+    /** the name the MXBean is registered under */
+    public static final String OBJECT_NAME = "org.cis1200:type=Metrics";
+
+    /**
+     * whether to count; a plain field, since a counter seen a little late by
+     * another thread does no harm
+     */
+    private static boolean enabled = Boolean.getBoolean("twitterbot.metrics");
+
+    /** lines read by FileLineIterator */
+    static final LongAdder LINES = new LongAdder();
+    /** CSV records read by CsvColumnIterator */
+    static final LongAdder RECORDS = new LongAdder();
+    /** tweets cleaned by TweetParser */
+    static final LongAdder TWEETS = new LongAdder();
+    /** sentences produced by cleaning */
+    static final LongAdder SENTENCES = new LongAdder();
+    /** clean words produced by cleaning */
+    static final LongAdder TOKENS = new LongAdder();
+    /** words and URLs removed by cleaning */
+    static final LongAdder DROPPED_WORDS = new LongAdder();
+    /** sentences added to a MarkovChain */
+    static final LongAdder TRAINED_SENTENCES = new LongAdder();
+    /** time spent in MarkovChain.train(Stream) */
+    static final LongAdder TRAIN_NANOS = new LongAdder();
+
+    private static volatile LatencyHistogram generate = new LatencyHistogram();
+    private static volatile MarkovModel model;
+
+    private Metrics() {
+    }
+
+    /**
+     * @return whether metrics are being counted
+     */
+    public static boolean enabled() {
+        return enabled;
+    }
+
+    /**
+     * Turns counting on or off. The counts so far are kept.
+     *
+     * @param on - whether to count
+     */
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    /** Sets every counter and the latency histogram back to zero. */
+    public static void reset() {
+        for (LongAdder counter : new LongAdder[] {
+            LINES, RECORDS, TWEETS, SENTENCES, TOKENS, DROPPED_WORDS, TRAINED_SENTENCES,
+            TRAIN_NANOS
+        }) {
+            counter.reset();
+        }
+        generate = new LatencyHistogram();
+    }
+
+    /**
+     * Records the result of cleaning one tweet. The words it dropped are
+     * counted where they are dropped.
+     *
+     * @param sentences - the sentences it produced
+     */
+    static void cleaned(List<List<String>> sentences) {
+        int tokens = 0;
+        for (List<String> sentence : sentences) {
+            tokens += sentence.size();
+        }
+        TWEETS.increment();
+        SENTENCES.add(sentences.size());
+        TOKENS.add(tokens);
+    }
+
+    /**
+     * Records one generate call.
+     *
+     * @param start - the System.nanoTime() when the call started
+     */
+    static void generated(long start) {
+        generate.record(System.nanoTime() - start);
+    }
+
+    /**
+     * @return the latencies of generate calls
+     */
+    static LatencyHistogram generateLatencies() {
+        return generate;
+    }
+
+    /**
+     * Makes a model the one whose size is reported. This is cheap enough to
+     * call whenever a new model is published, and is done even while
+     * metrics are disabled.
+     *
+     * @param watched - the model to report on, or null for none
+     */
+    public static synchronized void watch(MarkovModel watched) {
+        model = watched;
+    }
+
+    /**
+     * Stops reporting on a model, if it is still the one being reported on,
+     * so that the model can be garbage collected. A model watched since then
+     * is left alone.
+     *
+     * @param watched - the model to stop reporting on
+     */
+    public static synchronized void unwatch(MarkovModel watched) {
+        if (model == watched) {
+            model = null;
+        }
+    }
+
+    /**
+     * @return all the metrics as lines of text
+     */
+    public static String dump() {
+        LatencyHistogram latencies = generate;
+        MarkovModel watched = model;
+        StringBuilder sb = new StringBuilder();
+        sb.append("enabled ").append(enabled).append('\n');
+        sb.append("lines ").append(LINES.sum()).append('\n');
+        sb.append("records ").append(RECORDS.sum()).append('\n');
+        sb.append("tweets ").append(TWEETS.sum()).append('\n');
+        sb.append("sentences ").append(SENTENCES.sum()).append('\n');
+        sb.append("tokens ").append(TOKENS.sum()).append('\n');
+        sb.append("dropped_words ").append(DROPPED_WORDS.sum()).append('\n');
+        sb.append("trained_sentences ").append(TRAINED_SENTENCES.sum()).append('\n');
+        sb.append("train_ms ").append(TimeUnit.NANOSECONDS.toMillis(TRAIN_NANOS.sum()))
+                .append('\n');
+        sb.append("generated ").append(latencies.count()).append('\n');
+        sb.append("generate_p50_us ").append(latencies.percentile(50)).append('\n');
+        sb.append("generate_p99_us ").append(latencies.percentile(99)).append('\n');
+        sb.append("generate_max_us ").append(latencies.max()).append('\n');
+        sb.append("model_words ").append(watched == null ? 0 : watched.words()).append('\n');
+        sb.append("model_edges ").append(watched == null ? 0 : watched.edges()).append('\n');
+        sb.append("model_bytes ").append(watched == null ? 0 : watched.bytes()).append('\n');
+        return sb.toString();
+    }
+
+    /**
+     * Prints {@link #dump()} periodically on a background thread.
+     *
+     * @param period - the time between dumps
+     * @param unit   - the unit of period
+     * @param out    - where to print the dumps
+     * @return a Closeable that stops the dumps
+     * @throws IllegalArgumentException if period is not positive or unit or out
+     *                                  is null
+     */
+    public static Closeable dumpEvery(long period, TimeUnit unit, PrintStream out) {
+        if (period <= 0 || unit == null || out == null) {
+            throw new IllegalArgumentException();
+        }
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ScheduledFuture<?> task = timer.scheduleAtFixedRate(
+                () -> out.print(dump()), period, period, unit
+        );
+        return () -> {
+            task.cancel(false);
+            timer.shutdown();
+        };
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server, so that tools such
+     * as JConsole can read them. Registering again has no effect.
+     *
+     * @throws IllegalStateException if the MBean cannot be registered
+     */
+    public static synchronized void register() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new Bean(), name);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("cannot register metrics MBean", e);
+        }
+    }
+
+    /** The MXBean, which reads the static metrics. */
+    private static final class Bean implements MetricsMXBean {
+        @Override
+        public boolean isEnabled() {
+            return enabled();
+        }
+
+        @Override
+        public void setEnabled(boolean on) {
+            Metrics.setEnabled(on);
+        }
+
+        @Override
+        public long getLines() {
+            return LINES.sum();
+        }
+
+        @Override
+        public long getRecords() {
+            return RECORDS.sum();
+        }
+
+        @Override
+        public long getTweets() {
+            return TWEETS.sum();
+        }
+
+        @Override
+        public long getSentences() {
+            return SENTENCES.sum();
+        }
+
+        @Override
+        public long getTokens() {
+            return TOKENS.sum();
+        }
+
+        @Override
+        public long getDroppedWords() {
+            return DROPPED_WORDS.sum();
+        }
+
+        @Override
+        public long getTrainedSentences() {
+            return TRAINED_SENTENCES.sum();
+        }
+
+        @Override
+        public long getTrainMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(TRAIN_NANOS.sum());
+        }
+
+        @Override
+        public long getGenerated() {
+            return generate.count();
+        }
+
+        @Override
+        public long getGenerateP50Micros() {
+            return generate.percentile(50);
+        }
+
+        @Override
+        public long getGenerateP99Micros() {
+            return generate.percentile(99);
+        }
+
+        @Override
+        public long getGenerateMaxMicros() {
+            return generate.max();
+        }
+
+        @Override
+        public int getVocabulary() {
+            MarkovModel watched = model;
+            return watched == null ? 0 : watched.words();
+        }
+
+        @Override
+        public int getEdges() {
+            MarkovModel watched = model;
+            return watched == null ? 0 : watched.edges();
+        }
+
+        @Override
+        public long getModelBytes() {
+            MarkovModel watched = model;
+            return watched == null ? 0 : watched.bytes();
+        }
+
+        @Override
+        public void reset() {
+            Metrics.reset();
+        }
+    }
+}
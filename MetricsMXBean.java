@@ -0,0 +1,45 @@
+package org.cis1200;
+
+/**
+ * The JMX view of {@link Metrics}, registered by {@link Metrics#register()}
+ * as org.cis1200:type=Metrics. Latencies are in microseconds and model sizes
+ * describe the last model passed to {@link Metrics#watch(MarkovModel)}.
+ */
+public interface MetricsMXBean {
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    long getLines();
+
+    long getRecords();
+
+    long getTweets();
+
+    long getSentences();
+
+    long getTokens();
+
+    long getDroppedWords();
+
+    long getTrainedSentences();
+
+    long getTrainMillis();
+
+    long getGenerated();
+
+    long getGenerateP50Micros();
+
+    long getGenerateP99Micros();
+
+    long getGenerateMaxMicros();
+
+    int getVocabulary();
+
+    int getEdges();
+
+    long getModelBytes();
+
+    /** Sets every counter and the latency histogram back to zero. */
+    void reset();
+}
@@ -0,0 +1,134 @@
+package org.cis1200;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/** Tests for Metrics */
+public class MetricsTest {
+
+    // A helper function that runs some work with metrics enabled and reset
+    private static void measure(Runnable work) {
+        Metrics.reset();
+        Metrics.setEnabled(true);
+        try {
+            work.run();
+        } finally {
+            Metrics.setEnabled(false);
+        }
+    }
+
+    @Test
+    public void testCountsCleaning() {
+        String csv = "0,0,Woof woof. @you are good http://x.co\n1,1,\"a,b\"\n";
+        measure(() -> TweetParser.csvDataToTrainingData(
+                new BufferedReader(new StringReader(csv)), 2
+        ));
+        assertEquals(2, Metrics.RECORDS.sum());
+        assertEquals(2, Metrics.TWEETS.sum());
+        // "woof woof", "are good" and an empty sentence for "a,b"
+        assertEquals(3, Metrics.SENTENCES.sum());
+        assertEquals(4, Metrics.TOKENS.sum());
+        // "@you" and the URL, and "a,b" as a single bad word
+        assertEquals(3, Metrics.DROPPED_WORDS.sum());
+    }
+
+    @Test
+    public void testCountsLines() {
+        measure(() -> {
+            FileLineIterator lines = new FileLineIterator(
+                    new BufferedReader(new StringReader("a\nb\nc\n"))
+            );
+            while (lines.hasNext()) {
+                lines.next();
+            }
+        });
+        assertEquals(3, Metrics.LINES.sum());
+    }
+
+    @Test
+    public void testCountsTrainingAndGeneration() {
+        MarkovChain mc = new MarkovChain();
+        measure(() -> {
+            mc.train(Arrays.asList(
+                    Arrays.asList("a", "dog"), Arrays.asList("a", "cat"), Arrays.asList("b")
+            ).stream());
+            for (int i = 0; i < 10; i++) {
+                TwitterBot.generateTweetChars(mc.toModel(), bound -> 0, 280);
+            }
+        });
+        assertEquals(3, Metrics.TRAINED_SENTENCES.sum());
+        assertEquals(10, Metrics.generateLatencies().count());
+    }
+
+    @Test
+    public void testDisabledCountsNothing() {
+        Metrics.reset();
+        Metrics.setEnabled(false);
+        MarkovChain mc = new MarkovChain();
+        mc.train(TweetParser.streamTrainingData(
+                FileLineIterator.fileToReader("./files/dog_feelings_tweets.csv"), 2
+        ));
+        TwitterBot.generateTweetChars(mc.toModel(), new RandomNumberGenerator(), 280);
+        assertEquals(0, Metrics.TWEETS.sum());
+        assertEquals(0, Metrics.TRAINED_SENTENCES.sum());
+        assertEquals(0, Metrics.generateLatencies().count());
+    }
+
+    @Test
+    public void testModelGaugesAndDump() {
+        MarkovChain mc = new MarkovChain();
+        mc.train(Arrays.asList("a", "dog").iterator());
+        MarkovModel model = mc.toModel();
+        Metrics.watch(model);
+        try {
+            String dump = Metrics.dump();
+            assertTrue(dump.contains("model_words 3\n"));
+            assertTrue(dump.contains("model_edges 2\n"));
+            assertTrue(model.bytes() > 0);
+            assertTrue(dump.contains("model_bytes " + model.bytes() + "\n"));
+        } finally {
+            Metrics.watch(null);
+        }
+    }
+
+    @Test
+    public void testDumpEvery() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(bytes, true, "UTF-8");
+        Closeable dumps = Metrics.dumpEvery(5, TimeUnit.MILLISECONDS, out);
+        try {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (bytes.size() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+        } finally {
+            dumps.close();
+        }
+        assertTrue(bytes.toString("UTF-8").contains("tweets "));
+    }
+
+    @Test
+    public void testJmx() throws Exception {
+        Metrics.register();
+        Metrics.register();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(Metrics.OBJECT_NAME);
+        measure(() -> TweetParser.parseAndCleanTweet("one two. three"));
+        assertEquals(1L, server.getAttribute(name, "Tweets"));
+        assertEquals(3L, server.getAttribute(name, "Tokens"));
+        assertEquals(false, server.getAttribute(name, "Enabled"));
+    }
+}
@@ -0,0 +1,327 @@
+package org.cis1200;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * A ModelRegistry hosts the models of many personas (one per corpus of
+ * tweets) in one JVM, loading each from its snapshot the first time it is
+ * asked for.
+ * <p>
+ * Every model the registry loads takes its words' Strings from one shared
+ * Vocabulary, so a word used by many personas is stored once rather than once
+ * per persona. Each model still has its own small table of ids, so its count
+ * arrays only cover its own words.
+ * <p>
+ * The registry keeps the loaded models' tables and the shared words under a
+ * memory cap (see MarkovModel.bytes()). When loading a model takes it over the
+ * cap, the least recently used models are dropped until it fits again; they
+ * are loaded again from their snapshots if asked for later. Callers that still
+ * hold a dropped model can keep using it. The most recently used model is
+ * never dropped, even if it alone is over the cap. Once a model is dropped,
+ * the shared words are rebuilt from the loaded models if they hold words that
+ * no loaded model uses, so they do not grow as personas cycle through.
+ * <p>
+ * All methods may be called from several threads. A model is loaded without
+ * holding the registry's lock, so loading one persona (which may mean training
+ * it) does not hold up callers asking for models that are already loaded.
+ * Threads that ask for a persona while it is loading wait for that one load.
+ * Only the reading of snapshots into the shared words happens one at a time.
+ */
+public class ModelRegistry {
+    /** the corpora bundled with the project, by persona name */
+    static final String[] BUNDLED = { "noaa", "dog_feelings", "big_ben_clock", "captain_markov" };
+
+    /** Where a persona's model comes from. */
+    private static final class Source {
+        final String snapshotPath;
+        /** the CSV to train from if the snapshot is missing or stale, or null */
+        final String tweetsPath;
+        final int tweetColumn;
+
+        Source(String snapshotPath, String tweetsPath, int tweetColumn) {
+            this.snapshotPath = snapshotPath;
+            this.tweetsPath = tweetsPath;
+            this.tweetColumn = tweetColumn;
+        }
+    }
+
+    private final long maxBytes;
+    /** guards words, which loads intern into without the registry's lock */
+    private final Object wordLock = new Object();
+    private Vocabulary words = new Vocabulary();
+    private final Map<String, Source> sources = new LinkedHashMap<>();
+    /** loaded models, least recently used first */
+    private final LinkedHashMap<String, MarkovModel> loaded =
+            new LinkedHashMap<>(16, 0.75f, true);
+    /** loads in progress, by persona */
+    private final Map<String, CompletableFuture<MarkovModel>> loading = new HashMap<>();
+    /** the loaded models' tableBytes() */
+    private long bytes;
+    /** the size of the shared words when last measured */
+    private long wordBytes;
+    private long loads;
+
+    /**
+     * Creates an empty registry.
+     *
+     * @param maxBytes - the most memory the loaded models' tables and the
+     *                 shared words should take
+     * @throws IllegalArgumentException if maxBytes is not positive
+     */
+    public ModelRegistry(long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be positive");
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Creates a registry of the bundled personas (noaa, dog_feelings,
+     * big_ben_clock and captain_markov). Each is loaded from
+     * dir/NAME_tweets.model, which is first trained from dir/NAME_tweets.csv
+     * if it is missing or older than the CSV.
+     *
+     * @param dir      - the directory holding the CSV files
+     * @param maxBytes - the memory cap, as for the constructor
+     * @return the new registry
+     */
+    public static ModelRegistry bundled(String dir, long maxBytes) {
+        ModelRegistry registry = new ModelRegistry(maxBytes);
+        for (String persona : BUNDLED) {
+            String base = dir + "/" + persona + "_tweets";
+            registry.register(persona, base + ".model", base + ".csv", TwitterBot.TWEET_COLUMN);
+        }
+        return registry;
+    }
+
+    /**
+     * Adds a persona whose model is loaded from a snapshot, replacing any
+     * persona with the same name.
+     *
+     * @param persona      - the persona's name
+     * @param snapshotPath - the path of the persona's snapshot
+     * @throws IllegalArgumentException if either argument is null
+     */
+    public void register(String persona, String snapshotPath) {
+        register(persona, snapshotPath, null, 0);
+    }
+
+    /**
+     * Adds a persona whose model is loaded from a snapshot, after training it
+     * from a CSV file of tweets if the snapshot is missing or older than the
+     * CSV. Replaces any persona with the same name.
+     *
+     * @param persona      - the persona's name
+     * @param snapshotPath - the path of the persona's snapshot
+     * @param tweetsPath   - the path of the persona's CSV file of tweets
+     * @param tweetColumn  - the column of the CSV that contains the tweets
+     * @throws IllegalArgumentException if persona or snapshotPath is null
+     */
+    public synchronized void register(
+            String persona, String snapshotPath, String tweetsPath, int tweetColumn
+    ) {
+        if (persona == null || snapshotPath == null) {
+            throw new IllegalArgumentException();
+        }
+        sources.put(persona, new Source(snapshotPath, tweetsPath, tweetColumn));
+        loading.remove(persona);
+        unload(persona);
+    }
+
+    /**
+     * Returns a persona's model, loading it if it is not loaded.
+     *
+     * @param persona - the persona's name
+     * @return the persona's model
+     * @throws IllegalArgumentException if no persona has that name
+     * @throws IOException              if the model cannot be trained or
+     *                                  loaded
+     */
+    public MarkovModel get(String persona) throws IOException {
+        Source source;
+        CompletableFuture<MarkovModel> load;
+        boolean loader = false;
+        synchronized (this) {
+            MarkovModel model = loaded.get(persona);
+            if (model != null) {
+                return model;
+            }
+            source = sources.get(persona);
+            if (source == null) {
+                throw new IllegalArgumentException("no such persona: " + persona);
+            }
+            load = loading.get(persona);
+            if (load == null) {
+                load = new CompletableFuture<>();
+                loading.put(persona, load);
+                loader = true;
+            }
+        }
+        if (!loader) {
+            return await(load);
+        }
+
+        MarkovModel model;
+        try {
+            MarkovChain mc = load(source.snapshotPath, source.tweetsPath, source.tweetColumn);
+            // the chain is not used again, so its tables need not be copied
+            model = new MarkovModel(mc.vocabulary, mc.transitions, mc.startTable);
+        } catch (IOException | RuntimeException e) {
+            synchronized (this) {
+                loading.remove(persona, load);
+            }
+            load.completeExceptionally(e);
+            throw e;
+        }
+        synchronized (this) {
+            loading.remove(persona, load);
+            // a persona registered again while loading keeps its new source
+            if (sources.get(persona) == source) {
+                loaded.put(persona, model);
+                bytes += model.tableBytes();
+                measureWords();
+                evict();
+            }
+            loads++;
+        }
+        load.complete(model);
+        return model;
+    }
+
+    /**
+     * Trains a persona's snapshot if it is stale and reads it, interning its
+     * words into the shared vocabulary. Called without the registry's lock.
+     *
+     * @param snapshotPath - the path of the persona's snapshot
+     * @param tweetsPath   - the path of the persona's CSV file of tweets, or
+     *                     null
+     * @param tweetColumn  - the column of the CSV that contains the tweets
+     * @return the persona's chain
+     * @throws IOException if the model cannot be trained or loaded
+     */
+    MarkovChain load(String snapshotPath, String tweetsPath, int tweetColumn)
+            throws IOException {
+        NumberGenerator ng = new SplittableNumberGenerator();
+        if (tweetsPath != null && !TwitterBot.isFresh(tweetsPath, snapshotPath)) {
+            TwitterBot.loadOrTrain(tweetsPath, tweetColumn, snapshotPath, ng);
+        }
+        synchronized (wordLock) {
+            return ModelSnapshot.load(snapshotPath, ng, words);
+        }
+    }
+
+    /** Waits for another thread's load, rethrowing its exception if it failed. */
+    private static MarkovModel await(CompletableFuture<MarkovModel> load) throws IOException {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw new IOException(cause.getMessage(), cause);
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw e;
+        }
+    }
+
+    /** Drops least recently used models until the rest fit under the cap. */
+    private void evict() {
+        Iterator<Map.Entry<String, MarkovModel>> eldest = loaded.entrySet().iterator();
+        while (bytes + wordBytes > maxBytes && loaded.size() > 1) {
+            bytes -= eldest.next().getValue().tableBytes();
+            eldest.remove();
+            pruneWords();
+        }
+    }
+
+    private void unload(String persona) {
+        MarkovModel model = loaded.remove(persona);
+        if (model != null) {
+            bytes -= model.tableBytes();
+            pruneWords();
+        }
+    }
+
+    /**
+     * Rebuilds the shared words from the loaded models if there are more of
+     * them than the loaded models have between them, which means some are
+     * only used by dropped models. The loaded models keep their Strings, which
+     * the new shared words take over.
+     */
+    private void pruneWords() {
+        synchronized (wordLock) {
+            int used = 0;
+            for (MarkovModel model : loaded.values()) {
+                used += model.words();
+            }
+            if (words.size() > used) {
+                Vocabulary kept = new Vocabulary();
+                for (MarkovModel model : loaded.values()) {
+                    for (int id = 0; id < model.words(); id++) {
+                        kept.intern(model.word(id));
+                    }
+                }
+                words = kept;
+            }
+        }
+        measureWords();
+    }
+
+    private void measureWords() {
+        synchronized (wordLock) {
+            wordBytes = words.bytes() + words.wordBytes();
+        }
+    }
+
+    /**
+     * @return the names of every registered persona, sorted
+     */
+    public synchronized Set<String> personas() {
+        return new TreeSet<>(sources.keySet());
+    }
+
+    /**
+     * @param persona - a persona's name
+     * @return true if the persona's model is loaded
+     */
+    public synchronized boolean isLoaded(String persona) {
+        return loaded.containsKey(persona);
+    }
+
+    /**
+     * @return the approximate memory taken by the loaded models' tables and
+     *         the shared words
+     */
+    public synchronized long bytes() {
+        return bytes + wordBytes;
+    }
+
+    /**
+     * @return the number of distinct shared words, which covers the loaded
+     *         models and may include words of models dropped since the last
+     *         rebuild
+     */
+    public int words() {
+        synchronized (wordLock) {
+            return words.size();
+        }
+    }
+
+    /**
+     * @return the number of times a model has been loaded, including reloads
+     *         after eviction
+     */
+    public synchronized long loads() {
+        return loads;
+    }
+}
@@ -0,0 +1,181 @@
+package org.cis1200;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/** Tests for ModelRegistry */
+public class ModelRegistryTest {
+
+    // A helper function that copies the bundled CSV files to a new directory
+    private static Path copyCorpora() throws IOException {
+        Path dir = Files.createTempDirectory("personas");
+        for (String persona : ModelRegistry.BUNDLED) {
+            String name = persona + "_tweets.csv";
+            Files.copy(Path.of("files", name), dir.resolve(name));
+        }
+        return dir;
+    }
+
+    @Test
+    public void testLoadsLazilyAndSharesWords() throws IOException {
+        ModelRegistry registry = ModelRegistry.bundled(copyCorpora().toString(), Long.MAX_VALUE);
+        assertEquals(new TreeSet<>(Arrays.asList(ModelRegistry.BUNDLED)), registry.personas());
+        assertFalse(registry.isLoaded("noaa"));
+        assertEquals(0, registry.loads());
+
+        int separate = 0;
+        long tableBytes = 0;
+        for (String persona : ModelRegistry.BUNDLED) {
+            MarkovModel model = registry.get(persona);
+            assertSame(model, registry.get(persona));
+            assertTrue(registry.isLoaded(persona));
+            separate += model.words();
+            tableBytes += model.tableBytes();
+        }
+        assertEquals(ModelRegistry.BUNDLED.length, registry.loads());
+        // the shared words count as well
+        assertTrue(registry.bytes() > tableBytes);
+        // common words such as "the", and the end marker, are stored once
+        assertTrue(registry.words() < separate);
+    }
+
+    @Test
+    public void testModelsMatchTrainedOnes() throws IOException {
+        Path dir = copyCorpora();
+        ModelRegistry registry = ModelRegistry.bundled(dir.toString(), Long.MAX_VALUE);
+        registry.get("noaa");
+        MarkovModel shared = registry.get("dog_feelings");
+        MarkovChain mc = new MarkovChain();
+        mc.train(TweetParser.streamTrainingData(
+                FileLineIterator.fileToReader(dir.resolve("dog_feelings_tweets.csv").toString()),
+                TwitterBot.TWEET_COLUMN
+        ));
+        assertEquals(
+                TwitterBot.generateTweets(mc.toModel(), 50, 140, 1200L),
+                TwitterBot.generateTweets(shared, 50, 140, 1200L)
+        );
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() throws IOException {
+        Path dir = copyCorpora();
+        ModelRegistry probe = ModelRegistry.bundled(dir.toString(), Long.MAX_VALUE);
+        long noaa = probe.get("noaa").tableBytes();
+        long dog = probe.get("dog_feelings").tableBytes();
+        long clock = probe.get("big_ben_clock").tableBytes();
+
+        // room for any two of the three, and the words of all three
+        long cap = probe.bytes() - Math.min(noaa, Math.min(dog, clock));
+        ModelRegistry registry = ModelRegistry.bundled(dir.toString(), cap);
+        registry.get("noaa");
+        registry.get("dog_feelings");
+        registry.get("noaa");
+        registry.get("big_ben_clock");
+        assertTrue(registry.isLoaded("noaa"));
+        assertFalse(registry.isLoaded("dog_feelings"));
+        assertTrue(registry.isLoaded("big_ben_clock"));
+        assertTrue(registry.bytes() <= cap);
+        assertEquals(3, registry.loads());
+
+        registry.get("dog_feelings");
+        assertEquals(4, registry.loads());
+        assertFalse(registry.isLoaded("noaa"));
+    }
+
+    @Test
+    public void testSharedWordsShrinkWithLoadedModels() throws IOException {
+        ModelRegistry registry = ModelRegistry.bundled(copyCorpora().toString(), 1);
+        for (int round = 0; round < 3; round++) {
+            for (String persona : ModelRegistry.BUNDLED) {
+                MarkovModel model = registry.get(persona);
+                // only the one loaded model's words are kept
+                assertEquals(model.words(), registry.words());
+            }
+        }
+    }
+
+    @Test
+    public void testKeepsOneModelOverTheCap() throws IOException {
+        ModelRegistry registry = ModelRegistry.bundled(copyCorpora().toString(), 1);
+        registry.get("noaa");
+        registry.get("dog_feelings");
+        assertFalse(registry.isLoaded("noaa"));
+        assertTrue(registry.isLoaded("dog_feelings"));
+    }
+
+    @Test
+    public void testLoadDoesNotBlockOtherPersonas() throws Exception {
+        Path dir = copyCorpora();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ModelRegistry registry = new ModelRegistry(Long.MAX_VALUE) {
+            @Override
+            MarkovChain load(String snapshotPath, String tweetsPath, int tweetColumn)
+                    throws IOException {
+                if (snapshotPath.contains("noaa")) {
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        throw new IOException(e);
+                    }
+                }
+                return super.load(snapshotPath, tweetsPath, tweetColumn);
+            }
+        };
+        for (String persona : ModelRegistry.BUNDLED) {
+            String base = dir.resolve(persona + "_tweets").toString();
+            registry.register(persona, base + ".model", base + ".csv", TwitterBot.TWEET_COLUMN);
+        }
+        MarkovModel dog = registry.get("dog_feelings");
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<MarkovModel> first = pool.submit(() -> registry.get("noaa"));
+            started.await();
+            Future<MarkovModel> second = pool.submit(() -> registry.get("noaa"));
+            // noaa is still loading, but other personas are served meanwhile
+            assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+                assertSame(dog, registry.get("dog_feelings"));
+                registry.get("big_ben_clock");
+            });
+            assertFalse(registry.isLoaded("noaa"));
+            release.countDown();
+            assertSame(first.get(), second.get());
+        } finally {
+            release.countDown();
+            pool.shutdown();
+        }
+        assertTrue(registry.isLoaded("noaa"));
+        // the two threads asking for noaa shared one load
+        assertEquals(3, registry.loads());
+    }
+
+    @Test
+    public void testErrors() throws IOException {
+        ModelRegistry registry = new ModelRegistry(1 << 20);
+        assertThrows(IllegalArgumentException.class, () -> registry.get("nobody"));
+        Path missing = Files.createTempDirectory("personas").resolve("missing.model");
+        registry.register("missing", missing.toString());
+        assertThrows(IOException.class, () -> registry.get("missing"));
+        assertFalse(registry.isLoaded("missing"));
+        assertThrows(IllegalArgumentException.class, () -> registry.register(null, "a"));
+        assertThrows(IllegalArgumentException.class, () -> new ModelRegistry(0));
+    }
+}
@@ -0,0 +1,364 @@
+package org.cis1200;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * ModelSnapshot saves a trained MarkovChain to a compact binary file and loads
+ * it back, so a bot can start without re-reading and re-training on its CSV.
+ * <p>
+ * A snapshot holds exactly what MarkovChain stores: the vocabulary, the start
+ * word counts and the transition counts in their compact (CSR) form. All
+ * numbers are big-endian ints, except for the long sequence:
+ * <pre>
+ *   magic "MKCH", version
+ *   sequence    training log batches included (version 2 and later)
+ *   V (words), S (start words), E (transitions), B (bytes of word text)
+ *   int[V + 1]  byte offset of each word in the word text
+ *   byte[B]     UTF-8 word text, padded with zeros to a multiple of 4
+ *   int[S]      start word ids, int[S] start word counts
+ *   int[V + 1]  row offsets, int[E] successor ids, int[E] successor counts
+ * </pre>
+ * Loading maps the file and copies each array out in bulk; nothing is hashed
+ * or sorted, so start-up time is dominated by creating the word Strings.
+ * <p>
+ * The sequence lets an OnlineTrainer tell which batches of its TrainingLog are
+ * already part of the snapshot. Version 1 snapshots have no sequence and are
+ * read as sequence 0.
+ */
+public class ModelSnapshot {
+    /** "MKCH" */
+    static final int MAGIC = 0x4D4B4348;
+    static final int VERSION = 2;
+
+    private ModelSnapshot() {
+    }
+
+    /**
+     * Writes a snapshot of a MarkovChain's training data to a file, replacing
+     * the file if it already exists.
+     *
+     * @param mc       - the MarkovChain to save
+     * @param filePath - the path of the snapshot file
+     * @throws IOException if the file cannot be written
+     */
+    public static void save(MarkovChain mc, String filePath) throws IOException {
+        save(mc, filePath, 0);
+    }
+
+    /**
+     * Writes a snapshot of a MarkovChain's training data to a file, replacing
+     * the file if it already exists. The snapshot is written to a temporary
+     * file first and then moved into place, so a crash never leaves a
+     * half-written snapshot at filePath, and the temporary file is deleted
+     * if the save fails.
+     *
+     * @param mc       - the MarkovChain to save
+     * @param filePath - the path of the snapshot file
+     * @param sequence - the number of training log batches mc includes
+     * @throws IOException if the file cannot be written
+     */
+    static void save(MarkovChain mc, String filePath, long sequence) throws IOException {
+        if (mc == null || filePath == null) {
+            throw new IllegalArgumentException();
+        }
+        Path path = Path.of(filePath);
+        Path temporary = Path.of(filePath + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(
+                    temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING
+            )) {
+                write(mc, Channels.newOutputStream(channel), sequence);
+                channel.force(true);
+            }
+            Files.move(
+                    temporary, path, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE
+            );
+        } catch (IOException | RuntimeException e) {
+            // do not leave a half-written temporary file behind
+            try {
+                Files.deleteIfExists(temporary);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Writes a snapshot of a MarkovChain's training data to a stream.
+     *
+     * @param mc  - the MarkovChain to save
+     * @param out - the stream to write to; it is flushed but not closed
+     * @throws IOException if the stream cannot be written
+     */
+    static void write(MarkovChain mc, OutputStream out) throws IOException {
+        write(mc, out, 0);
+    }
+
+    /**
+     * Writes a snapshot of a MarkovChain's training data to a stream.
+     *
+     * @param mc       - the MarkovChain to save
+     * @param out      - the stream to write to; it is flushed but not closed
+     * @param sequence - the number of training log batches mc includes
+     * @throws IOException if the stream cannot be written
+     */
+    static void write(MarkovChain mc, OutputStream out, long sequence) throws IOException {
+        Vocabulary vocabulary = mc.vocabulary;
+        int words = vocabulary.size();
+        byte[][] text = new byte[words][];
+        int textBytes = 0;
+        for (int id = 0; id < words; id++) {
+            text[id] = vocabulary.word(id).getBytes(StandardCharsets.UTF_8);
+            textBytes += text[id].length;
+        }
+        int[] startOffsets = mc.startTable.offsets();
+        int starts = startOffsets.length > 1 ? startOffsets[1] : 0;
+        int[] offsets = mc.transitions.offsets();
+
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeLong(sequence);
+        data.writeInt(words);
+        data.writeInt(starts);
+        data.writeInt(offsets[offsets.length - 1]);
+        data.writeInt(textBytes);
+        int position = 0;
+        data.writeInt(position);
+        for (byte[] word : text) {
+            position += word.length;
+            data.writeInt(position);
+        }
+        for (byte[] word : text) {
+            data.write(word);
+        }
+        data.write(new byte[padding(textBytes)]);
+        writeInts(data, mc.startTable.targets(), starts);
+        writeInts(data, mc.startTable.counts(), starts);
+        // a new word may have been interned after the rows were compiled
+        for (int id = 0; id <= words; id++) {
+            data.writeInt(offsets[Math.min(id, offsets.length - 1)]);
+        }
+        writeInts(data, mc.transitions.targets(), offsets[offsets.length - 1]);
+        writeInts(data, mc.transitions.counts(), offsets[offsets.length - 1]);
+        data.flush();
+    }
+
+    /**
+     * Loads a MarkovChain from a snapshot file.
+     *
+     * @param filePath - the path of a file written by {@link #save}
+     * @param ng       - A (non-null) NumberGenerator used to walk through the
+     *                 MarkovChain
+     * @return a MarkovChain with the same training data as the saved one
+     * @throws IOException if the file cannot be read or is not a snapshot
+     */
+    public static MarkovChain load(String filePath, NumberGenerator ng) throws IOException {
+        if (filePath == null) {
+            throw new IllegalArgumentException();
+        }
+        try (FileChannel channel = FileChannel.open(Path.of(filePath), StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return read(buffer, ng);
+        }
+    }
+
+    /**
+     * Reads a MarkovChain from a buffer holding a snapshot.
+     *
+     * @param buffer - the snapshot, starting at the buffer's position
+     * @param ng     - A (non-null) NumberGenerator used to walk through the
+     *               MarkovChain
+     * @return a MarkovChain with the same training data as the saved one
+     * @throws IOException if the buffer does not hold a valid snapshot
+     */
+    static MarkovChain read(ByteBuffer buffer, NumberGenerator ng) throws IOException {
+        return read(buffer, ng, null);
+    }
+
+    /**
+     * Loads a MarkovChain from a snapshot file, taking each word's String
+     * from a shared vocabulary so that chains loaded this way hold one copy
+     * of every word between them (see ModelRegistry).
+     *
+     * @param filePath - the path of a file written by {@link #save}
+     * @param ng       - A (non-null) NumberGenerator used to walk through the
+     *                 MarkovChain
+     * @param shared   - the vocabulary to intern the words into
+     * @return a MarkovChain with the same training data as the saved one
+     * @throws IOException if the file cannot be read or is not a snapshot
+     */
+    static MarkovChain load(String filePath, NumberGenerator ng, Vocabulary shared)
+            throws IOException {
+        if (filePath == null) {
+            throw new IllegalArgumentException();
+        }
+        try (FileChannel channel = FileChannel.open(Path.of(filePath), StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return read(buffer, ng, shared);
+        }
+    }
+
+    /**
+     * Reads a MarkovChain from a buffer holding a snapshot.
+     *
+     * @param buffer - the snapshot, starting at the buffer's position
+     * @param ng     - A (non-null) NumberGenerator used to walk through the
+     *               MarkovChain
+     * @param shared - a vocabulary to take each word's String from, or null
+     *               for new Strings
+     * @return a MarkovChain with the same training data as the saved one
+     * @throws IOException if the buffer does not hold a valid snapshot
+     */
+    static MarkovChain read(ByteBuffer buffer, NumberGenerator ng, Vocabulary shared)
+            throws IOException {
+        try {
+            readSequence(buffer);
+            int words = buffer.getInt();
+            int starts = buffer.getInt();
+            int edges = buffer.getInt();
+            int textBytes = buffer.getInt();
+            if (words < 0 || starts < 0 || edges < 0 || textBytes < 0) {
+                throw new IOException("corrupt snapshot header");
+            }
+
+            int[] textOffsets = readInts(buffer, words + 1);
+            byte[] text = new byte[textBytes];
+            buffer.get(text);
+            buffer.position(buffer.position() + padding(textBytes));
+            Vocabulary vocabulary = new Vocabulary();
+            for (int id = 0; id < words; id++) {
+                String word = new String(
+                        text, textOffsets[id], textOffsets[id + 1] - textOffsets[id],
+                        StandardCharsets.UTF_8
+                );
+                if (shared != null) {
+                    word = shared.word(shared.intern(word));
+                }
+                if (vocabulary.intern(word) != id) {
+                    throw new IOException("corrupt snapshot vocabulary");
+                }
+            }
+
+            int[] startTargets = readInts(buffer, starts);
+            int[] startCounts = readInts(buffer, starts);
+            int[] startOffsets = new int[words + 1];
+            for (int id = 1; id <= words; id++) {
+                startOffsets[id] = starts;
+            }
+            int[] offsets = readInts(buffer, words + 1);
+            int[] targets = readInts(buffer, edges);
+            int[] counts = readInts(buffer, edges);
+            if (offsets[words] != edges || (words == 0 && starts > 0)) {
+                throw new IOException("corrupt snapshot transitions");
+            }
+            checkEdges(startTargets, startCounts, words, "start words");
+            if (offsets[0] != 0) {
+                throw new IOException("corrupt snapshot transitions");
+            }
+            for (int id = 0; id < words; id++) {
+                if (offsets[id] > offsets[id + 1]) {
+                    throw new IOException("corrupt snapshot transitions");
+                }
+            }
+            checkEdges(targets, counts, words, "transitions");
+
+            return new MarkovChain(
+                    ng, vocabulary,
+                    new TransitionTable(vocabulary, offsets, targets, counts),
+                    new TransitionTable(vocabulary, startOffsets, startTargets, startCounts)
+            );
+        } catch (RuntimeException e) {
+            // truncated buffers and out-of-range offsets
+            throw new IOException("corrupt snapshot", e);
+        }
+    }
+
+    /**
+     * Reads the sequence from a snapshot file without loading the rest.
+     *
+     * @param filePath - the path of a file written by {@link #save}
+     * @return the number of training log batches the snapshot includes
+     * @throws IOException if the file cannot be read or is not a snapshot
+     */
+    static long sequence(String filePath) throws IOException {
+        try (FileChannel channel = FileChannel.open(Path.of(filePath), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(16);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // keep reading until the header is full or the file ends
+            }
+            header.flip();
+            try {
+                return readSequence(header);
+            } catch (RuntimeException e) {
+                throw new IOException("corrupt snapshot", e);
+            }
+        }
+    }
+
+    /**
+     * Checks the magic number and version at the buffer's position, and reads
+     * the sequence that follows them, if the version has one.
+     */
+    private static long readSequence(ByteBuffer buffer) throws IOException {
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("not a MarkovChain snapshot");
+        }
+        int version = buffer.getInt();
+        if (version == 1) {
+            return 0;
+        }
+        if (version != VERSION) {
+            throw new IOException("unsupported snapshot version " + version);
+        }
+        return buffer.getLong();
+    }
+
+    /**
+     * Checks that every edge leads to a word of the snapshot and was counted
+     * at least once, so that a damaged file fails here rather than when the
+     * chain is walked.
+     */
+    private static void checkEdges(int[] targets, int[] counts, int words, String table)
+            throws IOException {
+        for (int i = 0; i < targets.length; i++) {
+            if (targets[i] < 0 || targets[i] >= words || counts[i] <= 0) {
+                throw new IOException("corrupt snapshot " + table);
+            }
+        }
+    }
+
+    private static int[] readInts(ByteBuffer buffer, int length) {
+        int[] values = new int[length];
+        IntBuffer ints = buffer.asIntBuffer();
+        ints.get(values);
+        buffer.position(buffer.position() + length * Integer.BYTES);
+        return values;
+    }
+
+    private static void writeInts(DataOutputStream data, int[] values, int length)
+            throws IOException {
+        for (int i = 0; i < length; i++) {
+            data.writeInt(values[i]);
+        }
+    }
+
+    private static int padding(int bytes) {
+        return (Integer.BYTES - bytes % Integer.BYTES) % Integer.BYTES;
+    }
+}
@@ -0,0 +1,167 @@
+package org.cis1200;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+/** Tests for ModelSnapshot */
+public class ModelSnapshotTest {
+
+    // A helper function that saves a MarkovChain to memory and loads it back
+    private static MarkovChain roundTrip(MarkovChain mc, NumberGenerator ng) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ModelSnapshot.write(mc, out);
+        return ModelSnapshot.read(ByteBuffer.wrap(out.toByteArray()), ng);
+    }
+
+    // A helper function to train a MarkovChain on a bundled CSV file
+    private static MarkovChain train(String path, NumberGenerator ng) {
+        MarkovChain mc = new MarkovChain(ng);
+        mc.train(TweetParser.streamTrainingData(FileLineIterator.fileToReader(path), 2));
+        return mc;
+    }
+
+    @Test
+    public void testRoundTripEmpty() throws IOException {
+        MarkovChain loaded = roundTrip(new MarkovChain(), new RandomNumberGenerator());
+        assertEquals(0, loaded.vocabulary.size());
+        assertEquals(0, loaded.chain.size());
+        assertFalse(loaded.hasNext());
+    }
+
+    @Test
+    public void testRoundTripKeepsCounts() throws IOException {
+        MarkovChain mc = new MarkovChain();
+        mc.train(Arrays.asList("a", "banana", "split").iterator());
+        mc.train(Arrays.asList("a", "banana").iterator());
+        mc.train(Arrays.asList("caf\u00e9", "ol\u00e9").iterator());
+        MarkovChain loaded = roundTrip(mc, new RandomNumberGenerator());
+        assertEquals(mc.toString(), loaded.toString());
+        assertEquals(mc.startWords().toString(), loaded.startWords().toString());
+        assertEquals(2, loaded.get("a").count("banana"));
+    }
+
+    @Test
+    public void testGenerationMatchesAfterLoad() throws IOException {
+        String path = "./files/dog_feelings_tweets.csv";
+        Random original = new Random(1200);
+        Random copy = new Random(1200);
+        MarkovChain mc = train(path, original::nextInt);
+        MarkovChain loaded = roundTrip(train(path, new RandomNumberGenerator()), copy::nextInt);
+        assertEquals(mc.toString(), loaded.toString());
+        for (int sentence = 0; sentence < 50; sentence++) {
+            mc.reset();
+            loaded.reset();
+            while (mc.hasNext()) {
+                assertEquals(mc.next(), loaded.next());
+            }
+            assertFalse(loaded.hasNext());
+        }
+    }
+
+    @Test
+    public void testTrainAfterLoad() throws IOException {
+        MarkovChain mc = new MarkovChain();
+        mc.train(Arrays.asList("a", "table").iterator());
+        MarkovChain loaded = roundTrip(mc, new RandomNumberGenerator());
+        loaded.train(Arrays.asList("a", "banana").iterator());
+        loaded.train(Arrays.asList("the", "table").iterator());
+
+        MarkovChain expected = new MarkovChain();
+        expected.train(Arrays.asList("a", "table").iterator());
+        expected.train(Arrays.asList("a", "banana").iterator());
+        expected.train(Arrays.asList("the", "table").iterator());
+        assertEquals(expected.toString(), loaded.toString());
+        assertEquals(expected.startWords().toString(), loaded.startWords().toString());
+    }
+
+    @Test
+    public void testSaveAndLoadFile() throws IOException {
+        File file = File.createTempFile("markov", ".model");
+        file.deleteOnExit();
+        MarkovChain mc = train("./files/simple_test_data.csv", new RandomNumberGenerator());
+        mc.save(file.getPath());
+        MarkovChain loaded = MarkovChain.load(file.getPath(), new RandomNumberGenerator());
+        assertEquals(mc.toString(), loaded.toString());
+    }
+
+    @Test
+    public void testRejectsOtherFiles() {
+        byte[] csv = "0, not a snapshot\n".getBytes();
+        assertThrows(
+                IOException.class,
+                () -> ModelSnapshot.read(ByteBuffer.wrap(csv), new RandomNumberGenerator())
+        );
+        ByteBuffer truncated = ByteBuffer.allocate(12);
+        truncated.putInt(ModelSnapshot.MAGIC).putInt(ModelSnapshot.VERSION).putInt(5).flip();
+        assertThrows(
+                IOException.class,
+                () -> ModelSnapshot.read(truncated, new RandomNumberGenerator())
+        );
+    }
+
+    @Test
+    public void testRejectsEdgesOutOfRange() throws IOException {
+        MarkovChain mc = new MarkovChain();
+        mc.train(Arrays.asList("a", "good", "dog").iterator());
+        mc.train(Arrays.asList("a", "dog").iterator());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ModelSnapshot.write(mc, out);
+        byte[] snapshot = out.toByteArray();
+        ByteBuffer header = ByteBuffer.wrap(snapshot);
+        int words = header.getInt(16);
+        int starts = header.getInt(20);
+        int edges = header.getInt(24);
+        int counts = snapshot.length - edges * Integer.BYTES;
+        int targets = counts - edges * Integer.BYTES;
+        int offsets = targets - (words + 1) * Integer.BYTES;
+        int startTargets = offsets - 2 * starts * Integer.BYTES;
+
+        assertCorrupt(snapshot, targets, words);
+        assertCorrupt(snapshot, targets, -1);
+        assertCorrupt(snapshot, counts, 0);
+        assertCorrupt(snapshot, counts, -3);
+        assertCorrupt(snapshot, startTargets, words);
+        assertCorrupt(snapshot, startTargets + starts * Integer.BYTES, 0);
+        assertCorrupt(snapshot, offsets + Integer.BYTES, edges + 1);
+        assertCorrupt(snapshot, offsets, 1);
+    }
+
+    // A helper function that checks a snapshot with one int changed is rejected
+    private static void assertCorrupt(byte[] snapshot, int position, int value) {
+        ByteBuffer buffer = ByteBuffer.wrap(snapshot.clone());
+        buffer.putInt(position, value);
+        assertThrows(
+                IOException.class,
+                () -> ModelSnapshot.read(buffer, new RandomNumberGenerator())
+        );
+    }
+
+    @Test
+    public void testFailedSaveRemovesTemporaryFile() throws IOException {
+        Path dir = Files.createTempDirectory("snapshots");
+        Path target = Files.createDirectory(dir.resolve("taken.model"));
+        Files.createFile(target.resolve("inside"));
+        MarkovChain mc = train("./files/simple_test_data.csv", new RandomNumberGenerator());
+        assertThrows(IOException.class, () -> mc.save(target.toString()));
+        assertFalse(Files.exists(Path.of(target + ".tmp")));
+    }
+
+    @Test
+    public void testLoadMissingFile() {
+        assertThrows(
+                IOException.class,
+                () -> MarkovChain.load("./files/no_such_file.model", new RandomNumberGenerator())
+        );
+    }
+}
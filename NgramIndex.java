@@ -0,0 +1,194 @@
+package org.cis1200;
+
+import java.util.List;
+
+/**
+ * An NgramIndex remembers every run of span consecutive words in the training
+ * sentences, so that a generated tweet which copies a training tweet word for
+ * word can be recognized (see {@link TwitterBot#generateOriginalTweetChars}).
+ * <p>
+ * Only a 64-bit hash of each run is kept, in an open-addressing table of
+ * longs, so the index takes about 16 bytes per distinct run however long the
+ * words are. Each word is hashed into 64 bits once, and each run's hash is
+ * computed from the previous one in constant time (a rolling polynomial hash
+ * over the words' hashes), so adding or checking a sentence costs one pass
+ * over its chars and one table probe per word.
+ * <p>
+ * Two different runs can share a hash, which makes {@link #copies(List)}
+ * report a copy that is not there. For words that are not chosen to collide
+ * this happens about once in 2^64 / size() lookups. It never misses a copy
+ * that is there.
+ * <p>
+ * Adding is not thread-safe, but once the index is built any number of
+ * threads may check sentences against it.
+ */
+public class NgramIndex {
+    /** multiplier of the rolling hash; odd, so that it is invertible */
+    private static final long BASE = 0x9E3779B97F4A7C15L;
+    /** marks an empty slot; a run that hashes to it is stored as 1 */
+    private static final long EMPTY = 0;
+
+    private final int span;
+    /** BASE to the power span - 1, to remove the oldest word from a hash */
+    private final long oldest;
+    private long[] slots = new long[16];
+    private int size;
+
+    /**
+     * Creates an empty index.
+     *
+     * @param span - the number of consecutive words that counts as a copy
+     * @throws IllegalArgumentException if span is less than 1
+     */
+    public NgramIndex(int span) {
+        if (span < 1) {
+            throw new IllegalArgumentException("span must be at least 1");
+        }
+        this.span = span;
+        long power = 1;
+        for (int i = 1; i < span; i++) {
+            power *= BASE;
+        }
+        this.oldest = power;
+    }
+
+    /**
+     * @return the number of consecutive words that counts as a copy
+     */
+    public int span() {
+        return span;
+    }
+
+    /**
+     * @return the number of distinct runs of span words in the index
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds every run of span consecutive words in a sentence. A sentence
+     * shorter than span adds nothing.
+     *
+     * @param sentence - a (non-null) list of cleaned words
+     */
+    public void add(List<String> sentence) {
+        long hash = 0;
+        for (int i = 0; i < sentence.size(); i++) {
+            hash = roll(hash, sentence, i);
+            if (i >= span - 1) {
+                insert(finish(hash));
+            }
+        }
+    }
+
+    /**
+     * Checks whether a sentence contains span consecutive words that also
+     * appear, consecutively and in the same order, in an indexed sentence.
+     *
+     * @param sentence - a (non-null) list of cleaned words
+     * @return true if the sentence copies at least span training words
+     */
+    public boolean copies(List<String> sentence) {
+        long hash = 0;
+        for (int i = 0; i < sentence.size(); i++) {
+            hash = roll(hash, sentence, i);
+            if (i >= span - 1 && contains(finish(hash))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks every sentence of a tweet, as split by TweetParser.
+     *
+     * @param tweet - a (non-null) tweet
+     * @return true if any sentence of the tweet copies at least span training
+     *         words
+     */
+    public boolean copies(String tweet) {
+        for (List<String> sentence : TweetParser.parseAndCleanTweet(tweet)) {
+            if (copies(sentence)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Moves the hash of the run ending at word i - 1 on to the run ending at
+     * word i, dropping word i - span.
+     */
+    private long roll(long hash, List<String> sentence, int i) {
+        if (i >= span) {
+            hash -= oldest * word(sentence.get(i - span));
+        }
+        return hash * BASE + word(sentence.get(i));
+    }
+
+    /**
+     * Hashes a word's chars into 64 bits (FNV-1a, then a finalizer to spread
+     * the last chars over the high bits). String.hashCode() would not do:
+     * words whose 32-bit hash codes collide, such as "Aa" and "BB", would
+     * always collide.
+     */
+    private static long word(String word) {
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < word.length(); i++) {
+            h ^= word.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        h ^= h >>> 29;
+        h *= 0xFF51AFD7ED558CCDL;
+        return h ^ (h >>> 32);
+    }
+
+    /** Mixes a rolling hash so that its low bits can index the table. */
+    private static long finish(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash == EMPTY ? 1 : hash;
+    }
+
+    private boolean contains(long key) {
+        int mask = slots.length - 1;
+        for (int i = (int) key & mask; ; i = (i + 1) & mask) {
+            long slot = slots[i];
+            if (slot == key) {
+                return true;
+            }
+            if (slot == EMPTY) {
+                return false;
+            }
+        }
+    }
+
+    private void insert(long key) {
+        int mask = slots.length - 1;
+        int i = (int) key & mask;
+        while (slots[i] != EMPTY) {
+            if (slots[i] == key) {
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        slots[i] = key;
+        size++;
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+    }
+
+    private void rehash() {
+        long[] old = slots;
+        slots = new long[old.length * 2];
+        size = 0;
+        for (long key : old) {
+            if (key != EMPTY) {
+                insert(key);
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package org.cis1200;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/** Tests for NgramIndex */
+public class NgramIndexTest {
+
+    @Test
+    public void testFindsCopiedRuns() {
+        NgramIndex index = new NgramIndex(3);
+        index.add(Arrays.asList("the", "dog", "is", "very", "good"));
+
+        assertEquals(3, index.size());
+        assertTrue(index.copies(Arrays.asList("the", "dog", "is")));
+        assertTrue(index.copies(Arrays.asList("a", "dog", "is", "very", "bad")));
+        assertFalse(index.copies(Arrays.asList("the", "dog", "was", "very", "good")));
+        assertFalse(index.copies(Arrays.asList("dog", "the", "is")));
+        assertFalse(index.copies(Arrays.asList("is", "very")));
+    }
+
+    @Test
+    public void testShortSentencesAddNothing() {
+        NgramIndex index = new NgramIndex(3);
+        index.add(Arrays.asList("good", "dog"));
+        index.add(Arrays.asList());
+        assertEquals(0, index.size());
+        assertFalse(index.copies(Arrays.asList("good", "dog", "bark")));
+    }
+
+    @Test
+    public void testTweetsAreCheckedBySentence() {
+        NgramIndex index = new NgramIndex(2);
+        index.add(Arrays.asList("good", "dog"));
+        assertTrue(index.copies("What a Good dog!"));
+        // a copy must not span the end of a sentence
+        assertFalse(index.copies("so good. dog park."));
+    }
+
+    @Test
+    public void testWordsWithEqualHashCodesDiffer() {
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        NgramIndex index = new NgramIndex(2);
+        index.add(Arrays.asList("Aa", "AaBB", "Aa"));
+        assertEquals(2, index.size());
+        assertFalse(index.copies(Arrays.asList("BB", "AaBB")));
+        assertFalse(index.copies(Arrays.asList("AaBB", "BB")));
+        assertFalse(index.copies(Arrays.asList("Aa", "BBAa")));
+        assertTrue(index.copies(Arrays.asList("AaBB", "Aa")));
+    }
+
+    @Test
+    public void testAgreesWithSetOfRuns() {
+        NgramIndex index = new NgramIndex(2);
+        Set<List<String>> runs = new HashSet<>();
+        List<List<String>> sentences = TweetParser.csvDataToTrainingData(
+                FileLineIterator.fileToReader("./files/dog_feelings_tweets.csv"), 2, index
+        );
+        for (List<String> sentence : sentences) {
+            for (int i = 0; i + 2 <= sentence.size(); i++) {
+                runs.add(sentence.subList(i, i + 2));
+            }
+        }
+        assertEquals(runs.size(), index.size());
+        for (List<String> run : runs) {
+            assertTrue(index.copies(run));
+        }
+        // the index does not change the training data
+        assertEquals(
+                TweetParser.csvDataToTrainingData(
+                        FileLineIterator.fileToReader("./files/dog_feelings_tweets.csv"), 2
+                ),
+                sentences
+        );
+    }
+
+    @Test
+    public void testGenerateOriginalTweets() {
+        NgramIndex index = new NgramIndex(4);
+        TwitterBot bot = new TwitterBot(
+                FileLineIterator.fileToReader("./files/dog_feelings_tweets.csv"), 2,
+                new Random(1200)::nextInt, index
+        );
+        int original = 0;
+        for (int i = 0; i < 50; i++) {
+            String tweet = bot.generateOriginalTweetChars(140, index, 20);
+            if (tweet != null) {
+                original++;
+                assertTrue(tweet.length() <= 140);
+                assertFalse(index.copies(tweet));
+            }
+        }
+        assertTrue(original > 0);
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> bot.generateOriginalTweetChars(140, index, 0)
+        );
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> bot.generateOriginalTweetChars(140, null, 1)
+        );
+    }
+
+    @Test
+    public void testInvalidSpan() {
+        assertThrows(IllegalArgumentException.class, () -> new NgramIndex(0));
+    }
+}
@@ -0,0 +1,197 @@
+package org.cis1200;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * An OnlineTrainer keeps a MarkovChain up to date as new tweets arrive,
+ * without retraining on the whole corpus.
+ * <p>
+ * Each batch of new tweets is cleaned, appended to a TrainingLog, and then
+ * added to the chain. A fresh MarkovModel is published after every batch, or
+ * after every publishEvery batches, so generators (for example a TweetServer)
+ * can keep reading the previous model while the next batch is trained.
+ * <p>
+ * Publishing copies the chain's vocabulary and rebuilds its compact count
+ * arrays, so it takes time in proportion to the whole model rather than to
+ * the batch. With many small batches, most of the time goes to publishing;
+ * publishing every few batches (or calling {@link #publish()} when a fresh
+ * model is needed) spreads that cost. OnlineTrainerBenchmark measures it.
+ * <p>
+ * State lives in two files: a snapshot (see ModelSnapshot) and the log of
+ * batches added since. Opening a trainer loads the snapshot and replays the
+ * log on top of it. {@link #checkpoint()} folds the log into a new snapshot
+ * and empties the log, so restarts stay fast. The snapshot records how many
+ * batches it includes, so a crash between writing the snapshot and emptying
+ * the log never counts a batch twice.
+ * <p>
+ * The adding methods and checkpoint() may be called from several threads;
+ * they run one at a time. {@link #model()} never blocks.
+ */
+public class OnlineTrainer implements Closeable {
+    private final String snapshotPath;
+    private final MarkovChain mc;
+    private final TrainingLog log;
+    private final int publishEvery;
+    /** batches trained on since the model was last published */
+    private int unpublished;
+    private volatile MarkovModel model;
+
+    /**
+     * Opens a trainer on a snapshot and its training log, either of which may
+     * not exist yet. A missing snapshot starts from an empty MarkovChain.
+     *
+     * @param snapshotPath - the path of the snapshot file
+     * @param logPath      - the path of the training log
+     * @param ng           - A (non-null) NumberGenerator for the MarkovChain
+     * @throws IOException if either file exists but cannot be read, or the
+     *                     log cannot be opened for appending
+     */
+    public OnlineTrainer(String snapshotPath, String logPath, NumberGenerator ng)
+            throws IOException {
+        this(snapshotPath, logPath, ng, 1);
+    }
+
+    /**
+     * Opens a trainer that publishes a new model only after every
+     * publishEvery batches.
+     *
+     * @param snapshotPath - the path of the snapshot file
+     * @param logPath      - the path of the training log
+     * @param ng           - A (non-null) NumberGenerator for the MarkovChain
+     * @param publishEvery - the number of batches between published models
+     * @throws IOException if either file exists but cannot be read, or the
+     *                     log cannot be opened for appending
+     * @throws IllegalArgumentException if publishEvery is less than 1
+     */
+    public OnlineTrainer(
+            String snapshotPath, String logPath, NumberGenerator ng, int publishEvery
+    ) throws IOException {
+        if (snapshotPath == null || logPath == null || ng == null || publishEvery < 1) {
+            throw new IllegalArgumentException();
+        }
+        this.snapshotPath = snapshotPath;
+        this.publishEvery = publishEvery;
+        long sequence = 0;
+        if (Files.exists(Path.of(snapshotPath))) {
+            mc = MarkovChain.load(snapshotPath, ng);
+            sequence = ModelSnapshot.sequence(snapshotPath);
+        } else {
+            mc = new MarkovChain(ng);
+        }
+        sequence = TrainingLog.replay(logPath, sequence, batch -> mc.train(batch.stream()));
+        log = new TrainingLog(logPath, sequence);
+        model = mc.toModel();
+        Metrics.watch(model);
+    }
+
+    /**
+     * @return the last published model
+     */
+    public MarkovModel model() {
+        return model;
+    }
+
+    /**
+     * @return the number of batches added since the trainer's files were first
+     *         created
+     */
+    public synchronized long batches() {
+        return log.sequence();
+    }
+
+    /**
+     * Cleans a batch of tweets, logs it and trains on it.
+     *
+     * @param tweets - the (non-null) raw tweets to add
+     * @return the last published model (see {@link #addSentences})
+     * @throws IOException if the batch cannot be logged; it is then not
+     *                     trained on either
+     */
+    public MarkovModel addTweets(List<String> tweets) throws IOException {
+        if (tweets == null) {
+            throw new IllegalArgumentException();
+        }
+        List<List<String>> sentences = new ArrayList<>();
+        for (String tweet : tweets) {
+            sentences.addAll(TweetParser.parseAndCleanTweet(tweet));
+        }
+        return addSentences(sentences);
+    }
+
+    /**
+     * Adds every tweet in CSV data, such as lines appended to a feed's CSV
+     * file since it was last read.
+     *
+     * @param br          - a BufferedReader over the new CSV records
+     * @param tweetColumn - the column of the records that contains the tweet
+     * @return the last published model (see {@link #addSentences})
+     * @throws IOException if the batch cannot be logged
+     */
+    public MarkovModel addCsv(BufferedReader br, int tweetColumn) throws IOException {
+        return addSentences(
+                TweetParser.streamTrainingData(br, tweetColumn).collect(Collectors.toList())
+        );
+    }
+
+    /**
+     * Logs a batch of cleaned sentences and trains on it, then publishes a
+     * new model if this is the publishEvery-th batch since the last one.
+     *
+     * @param sentences - the (non-null) sentences to add
+     * @return the last published model, which includes the new sentences only
+     *         if this batch published it
+     * @throws IOException if the batch cannot be logged; it is then not
+     *                     trained on either
+     */
+    public synchronized MarkovModel addSentences(List<? extends List<String>> sentences)
+            throws IOException {
+        if (sentences == null) {
+            throw new IllegalArgumentException();
+        }
+        log.append(sentences);
+        mc.train(sentences.stream());
+        unpublished++;
+        if (unpublished >= publishEvery) {
+            publish();
+        }
+        return model;
+    }
+
+    /**
+     * Publishes a model of everything trained so far, if any batch has been
+     * trained on since the last one.
+     *
+     * @return the model of everything trained so far
+     */
+    public synchronized MarkovModel publish() {
+        if (unpublished > 0) {
+            model = mc.toModel();
+            Metrics.watch(model);
+            unpublished = 0;
+        }
+        return model;
+    }
+
+    /**
+     * Saves everything trained so far to the snapshot and empties the log.
+     *
+     * @throws IOException if the snapshot cannot be written or the log cannot
+     *                     be emptied
+     */
+    public synchronized void checkpoint() throws IOException {
+        ModelSnapshot.save(mc, snapshotPath, log.sequence());
+        log.clear();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        log.close();
+    }
+}
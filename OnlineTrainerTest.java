@@ -0,0 +1,156 @@
+package org.cis1200;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/** Tests for OnlineTrainer */
+public class OnlineTrainerTest {
+
+    // A helper function that walks a model through fifty seeded sentences
+    private static List<String> walk(MarkovModel model) {
+        Random random = new Random(1200);
+        ChainCursor cursor = model.cursor(random::nextInt);
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            cursor.reset();
+            while (cursor.hasNext()) {
+                words.add(cursor.next());
+            }
+        }
+        return words;
+    }
+
+    // A helper function that reads the tweets of a bundled CSV file
+    private static List<String> tweets(String path) {
+        return TweetParser.csvDataToTweets(FileLineIterator.fileToReader(path), 2);
+    }
+
+    // A helper function that trains a MarkovModel on tweets in one go
+    private static MarkovModel trainAll(List<String> tweets) {
+        MarkovChain mc = new MarkovChain();
+        for (String tweet : tweets) {
+            mc.train(TweetParser.parseAndCleanTweet(tweet).stream());
+        }
+        return mc.toModel();
+    }
+
+    @Test
+    public void testBatchesMatchFullTraining() throws IOException {
+        Path dir = Files.createTempDirectory("online");
+        List<String> tweets = tweets("./files/dog_feelings_tweets.csv");
+        try (OnlineTrainer trainer = new OnlineTrainer(
+                dir.resolve("model").toString(), dir.resolve("log").toString(),
+                new RandomNumberGenerator()
+        )) {
+            for (int i = 0; i < tweets.size(); i += 25) {
+                trainer.addTweets(tweets.subList(i, Math.min(i + 25, tweets.size())));
+            }
+            assertEquals(walk(trainAll(tweets)), walk(trainer.model()));
+        }
+    }
+
+    @Test
+    public void testRestartReplaysSnapshotAndLog() throws IOException {
+        Path dir = Files.createTempDirectory("online");
+        String model = dir.resolve("model").toString();
+        String log = dir.resolve("log").toString();
+        List<String> tweets = tweets("./files/noaa_tweets.csv");
+        int half = tweets.size() / 2;
+
+        try (OnlineTrainer trainer = new OnlineTrainer(model, log, new RandomNumberGenerator())) {
+            trainer.addTweets(tweets.subList(0, 10));
+            trainer.addTweets(tweets.subList(10, half));
+            trainer.checkpoint();
+            assertEquals(0, Files.size(Path.of(log)));
+            trainer.addTweets(tweets.subList(half, tweets.size()));
+        }
+        try (OnlineTrainer trainer = new OnlineTrainer(model, log, new RandomNumberGenerator())) {
+            assertEquals(3, trainer.batches());
+            assertEquals(walk(trainAll(tweets)), walk(trainer.model()));
+        }
+    }
+
+    @Test
+    public void testCrashAfterSnapshotDoesNotCountTwice() throws IOException {
+        Path dir = Files.createTempDirectory("online");
+        String model = dir.resolve("model").toString();
+        String log = dir.resolve("log").toString();
+        List<String> tweets = tweets("./files/dog_feelings_tweets.csv");
+
+        try (OnlineTrainer trainer = new OnlineTrainer(model, log, new RandomNumberGenerator())) {
+            trainer.addTweets(tweets.subList(0, 30));
+            trainer.addTweets(tweets.subList(30, 60));
+            byte[] logged = Files.readAllBytes(Path.of(log));
+            trainer.checkpoint();
+            // as if the process died before the log was emptied
+            Files.write(Path.of(log), logged);
+        }
+        try (OnlineTrainer trainer = new OnlineTrainer(model, log, new RandomNumberGenerator())) {
+            assertEquals(walk(trainAll(tweets.subList(0, 60))), walk(trainer.model()));
+            trainer.addTweets(tweets.subList(60, tweets.size()));
+        }
+        try (OnlineTrainer trainer = new OnlineTrainer(model, log, new RandomNumberGenerator())) {
+            assertEquals(walk(trainAll(tweets)), walk(trainer.model()));
+        }
+    }
+
+    @Test
+    public void testAddCsvAndOldModelsUnchanged() throws IOException {
+        Path dir = Files.createTempDirectory("online");
+        try (OnlineTrainer trainer = new OnlineTrainer(
+                dir.resolve("model").toString(), dir.resolve("log").toString(),
+                new RandomNumberGenerator()
+        )) {
+            MarkovModel before = trainer.addCsv(
+                    new BufferedReader(new StringReader("0, 1, A table.\n")), 2
+            );
+            MarkovModel after = trainer.addCsv(
+                    new BufferedReader(new StringReader("1, 2, A banana!\n")), 2
+            );
+            assertEquals(3, before.words());
+            assertEquals(4, after.words());
+            assertSame(after, trainer.model());
+        }
+    }
+
+    @Test
+    public void testPublishEveryFewBatches() throws IOException {
+        Path dir = Files.createTempDirectory("online");
+        List<String> tweets = tweets("./files/dog_feelings_tweets.csv");
+        try (OnlineTrainer trainer = new OnlineTrainer(
+                dir.resolve("model").toString(), dir.resolve("log").toString(),
+                new RandomNumberGenerator(), 3
+        )) {
+            MarkovModel empty = trainer.model();
+            assertSame(empty, trainer.addTweets(tweets.subList(0, 10)));
+            assertSame(empty, trainer.addTweets(tweets.subList(10, 20)));
+            MarkovModel third = trainer.addTweets(tweets.subList(20, 30));
+            assertNotSame(empty, third);
+            assertEquals(walk(trainAll(tweets.subList(0, 30))), walk(third));
+
+            trainer.addTweets(tweets.subList(30, tweets.size()));
+            assertSame(third, trainer.model());
+            MarkovModel all = trainer.publish();
+            assertSame(all, trainer.model());
+            assertSame(all, trainer.publish());
+            assertEquals(walk(trainAll(tweets)), walk(all));
+        }
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new OnlineTrainer(
+                        dir.resolve("model").toString(), dir.resolve("log").toString(),
+                        new RandomNumberGenerator(), 0
+                )
+        );
+    }
+}
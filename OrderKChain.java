@@ -0,0 +1,289 @@
+package org.cis1200;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+
+/**
+ * An OrderKChain is a Markov chain in which each word depends on the order
+ * words before it, rather than only on the one word before it as in a
+ * MarkovChain. It has the same train / reset / next contract as MarkovChain,
+ * and with order 1 it generates exactly the same words for the same
+ * NumberGenerator.
+ * <p>
+ * Words are interned into a Vocabulary, and each context (the last order
+ * word ids, with the start of the sentence standing in for the words before
+ * the first) is interned into a ContextTrie. The counts of the words that
+ * follow each context are kept in a TransitionTable whose rows are context
+ * ids, so no String is ever built or hashed for a context. A context costs
+ * at least 32 bytes (24 in the trie and 8 in the table) plus 12 bytes per
+ * distinct successor.
+ * <p>
+ * A sentence ends when the end of sentence marker is picked, or when the
+ * context was never seen in training (which can only happen after
+ * {@link #reset(String)}).
+ * <p>
+ * A chain created with backoff also counts each word after every shorter
+ * context, from the last word alone up to the last order words; these are
+ * the nodes on the way down the trie to the full context, so no other index
+ * is needed. Each word is then picked from the longest context seen in
+ * training, with half a count discounted from each of its successors (see
+ * TransitionTable.pickDiscounted). The discounted mass, which is largest for
+ * contexts with few observations and many different successors, is given to
+ * the next shorter context, and so on down to the last word alone, which is
+ * not discounted. One walk down the trie finds every context, and the
+ * discounts come straight from the compact counts, so the only extra cost of
+ * backing off is one more number drawn per shorter context tried. A sentence
+ * then only ends early if its last word was never trained on.
+ * <p>
+ * An OrderKChain is not thread-safe.
+ */
+public class OrderKChain implements Iterator<String> {
+    /** stands for the words before the start of a sentence */
+    private static final int START = -1;
+    /** stands for a word that was never trained on */
+    private static final int UNKNOWN = -2;
+
+    private final int order;
+    private final boolean backoff;
+    private final NumberGenerator ng;
+    private final Vocabulary vocabulary = new Vocabulary();
+    private final ContextTrie contexts = new ContextTrie();
+    /** successor counts, with one row per context id */
+    private final TransitionTable successors = new TransitionTable(vocabulary);
+
+    /** the last order word ids of the walk, most recent last */
+    private final int[] window;
+    /** the context ids of the window, shortest first, found by pickBackingOff() */
+    private final int[] path;
+    private String nextWord = MarkovChain.END_TOKEN;
+    /** vocabulary id of nextWord, or UNKNOWN */
+    private int nextId = UNKNOWN;
+
+    /**
+     * Creates an empty chain without backoff.
+     *
+     * @param order - the number of previous words each word depends on
+     * @param ng    - A (non-null) NumberGenerator used to walk through the
+     *              chain
+     * @throws IllegalArgumentException if order is less than 1 or ng is null
+     */
+    public OrderKChain(int order, NumberGenerator ng) {
+        this(order, ng, false);
+    }
+
+    /**
+     * Creates an empty chain.
+     *
+     * @param order   - the number of previous words each word depends on
+     * @param ng      - A (non-null) NumberGenerator used to walk through the
+     *                chain
+     * @param backoff - whether to back off to shorter contexts, as described
+     *                above
+     * @throws IllegalArgumentException if order is less than 1 or ng is null
+     */
+    public OrderKChain(int order, NumberGenerator ng, boolean backoff) {
+        if (order < 1) {
+            throw new IllegalArgumentException("order must be at least 1");
+        }
+        if (ng == null) {
+            throw new IllegalArgumentException("NumberGenerator input cannot be null");
+        }
+        this.order = order;
+        this.backoff = backoff;
+        this.ng = ng;
+        this.window = new int[order];
+        this.path = new int[order];
+    }
+
+    /**
+     * @return the number of previous words each word depends on
+     */
+    public int order() {
+        return order;
+    }
+
+    /**
+     * @return true if the chain backs off to shorter contexts
+     */
+    public boolean backoff() {
+        return backoff;
+    }
+
+    /**
+     * Adds a sentence's training data to the chain: each word is counted as
+     * following the order words before it (and, with backoff, each shorter
+     * run of words before it), and the end of the sentence likewise.
+     *
+     * @param sentence - an iterator representing one sentence of training data
+     * @throws IllegalArgumentException - when the sentence Iterator is null
+     */
+    public void train(Iterator<String> sentence) {
+        if (sentence == null) {
+            throw new IllegalArgumentException();
+        }
+        if (!sentence.hasNext()) {
+            return;
+        }
+        int[] history = new int[order];
+        Arrays.fill(history, START);
+        while (sentence.hasNext()) {
+            int word = vocabulary.intern(sentence.next());
+            record(history, word);
+            shift(history, word);
+        }
+        record(history, vocabulary.intern(MarkovChain.END_TOKEN));
+    }
+
+    private void record(int[] history, int word) {
+        int node = ContextTrie.ROOT;
+        for (int i = order - 1; i >= 0; i--) {
+            node = contexts.intern(node, history[i]);
+            if (backoff || i == 0) {
+                successors.record(node, word);
+            }
+        }
+    }
+
+    /**
+     * Trains the chain on every sentence of a stream, one at a time.
+     *
+     * @param sentences - a stream of sentences of training data
+     * @throws IllegalArgumentException - when the stream is null
+     */
+    public void train(Stream<? extends List<String>> sentences) {
+        if (sentences == null) {
+            throw new IllegalArgumentException();
+        }
+        sentences.sequential().forEach(sentence -> train(sentence.iterator()));
+    }
+
+    /**
+     * Begins a sentence at start, so that the next call to next() returns
+     * start, and the words after it are picked as if start began a sentence.
+     *
+     * @param start - the first word of the sentence
+     * @throws IllegalArgumentException - when parameter is null.
+     */
+    public void reset(String start) {
+        if (start == null) {
+            throw new IllegalArgumentException("start cannot be null");
+        }
+        Arrays.fill(window, START);
+        nextWord = start;
+        int id = vocabulary.id(start);
+        nextId = id < 0 ? UNKNOWN : id;
+    }
+
+    /**
+     * Begins a sentence at a start word picked at random, so that the next
+     * call to next() returns that start word. If nothing was trained, the
+     * sentence is empty.
+     */
+    public void reset() {
+        Arrays.fill(window, START);
+        advance();
+    }
+
+    /**
+     * @return true if {@link #next()} will return a word of the sentence and
+     *         false at the end of the sentence
+     */
+    @Override
+    public boolean hasNext() {
+        return nextWord != null && !nextWord.equals(MarkovChain.END_TOKEN);
+    }
+
+    /**
+     * @return the next word of the sentence (chosen at random via the number
+     *         generator if it is not the start word)
+     * @throws NoSuchElementException if there are no more words in the sentence
+     */
+    @Override
+    public String next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        String result = nextWord;
+        shift(window, nextId);
+        advance();
+        return result;
+    }
+
+    /**
+     * @return the number of distinct contexts seen in training, including
+     *         those shorter than order that lead to them
+     */
+    public int contexts() {
+        return contexts.size();
+    }
+
+    /**
+     * @return the approximate size in bytes of the chain's contexts and
+     *         counts, not including its words' Strings
+     */
+    public long bytes() {
+        return contexts.bytes() + successors.bytes()
+                // about three vocabulary table slots per word
+                + Integer.BYTES * 3L * vocabulary.size();
+    }
+
+    /** Picks the word that follows the words in the window. */
+    private void advance() {
+        int successor = backoff ? pickBackingOff() : successors.pick(context(), ng);
+        if (successor < 0) {
+            nextWord = MarkovChain.END_TOKEN;
+            nextId = UNKNOWN;
+        } else {
+            nextWord = vocabulary.word(successor);
+            nextId = successor;
+        }
+    }
+
+    /**
+     * Walks the trie from the most recent word of the window back.
+     *
+     * @return the context id of the window, or -1 if it was never seen
+     */
+    private int context() {
+        int node = ContextTrie.ROOT;
+        for (int i = order - 1; i >= 0 && node >= 0; i--) {
+            node = contexts.child(node, window[i]);
+        }
+        return node;
+    }
+
+    /**
+     * Picks from the longest context of the window that was seen in
+     * training, backing off to shorter ones.
+     *
+     * @return the id of the picked word, or -1 if the last word of the window
+     *         was never trained on
+     */
+    private int pickBackingOff() {
+        int found = 0;
+        int node = ContextTrie.ROOT;
+        for (int i = order - 1; i >= 0; i--) {
+            node = contexts.child(node, window[i]);
+            if (node < 0) {
+                break;
+            }
+            path[found++] = node;
+        }
+        for (int depth = found - 1; depth > 0; depth--) {
+            int successor = successors.pickDiscounted(path[depth], ng);
+            if (successor >= 0) {
+                return successor;
+            }
+        }
+        return found == 0 ? -1 : successors.pick(path[0], ng);
+    }
+
+    /** Drops the oldest word of history and appends word. */
+    private static void shift(int[] history, int word) {
+        System.arraycopy(history, 1, history, 0, history.length - 1);
+        history[history.length - 1] = word;
+    }
+}
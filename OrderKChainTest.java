@@ -0,0 +1,224 @@
+package org.cis1200;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/** Tests for OrderKChain */
+public class OrderKChainTest {
+    private static final String PATH = "./files/dog_feelings_tweets.csv";
+
+    private static List<List<String>> sentences() {
+        return TweetParser.streamTrainingData(FileLineIterator.fileToReader(PATH), 2)
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> sentence(OrderKChain chain) {
+        List<String> words = new ArrayList<>();
+        chain.reset();
+        while (chain.hasNext()) {
+            words.add(chain.next());
+        }
+        return words;
+    }
+
+    @Test
+    public void testOrderOneWalksLikeMarkovChain() {
+        List<List<String>> sentences = sentences();
+        Random original = new Random(1200);
+        MarkovChain mc = new MarkovChain(original::nextInt);
+        mc.train(sentences.stream());
+        Random copy = new Random(1200);
+        OrderKChain chain = new OrderKChain(1, copy::nextInt);
+        chain.train(sentences.stream());
+
+        for (int sentence = 0; sentence < 50; sentence++) {
+            mc.reset();
+            chain.reset();
+            while (mc.hasNext()) {
+                assertEquals(mc.next(), chain.next());
+            }
+            assertFalse(chain.hasNext());
+        }
+    }
+
+    @Test
+    public void testHigherOrdersOnlyUseTrainedContexts() {
+        List<List<String>> sentences = sentences();
+        for (int order = 2; order <= 3; order++) {
+            // every run of order + 1 words (padded at the start) in training
+            Set<List<String>> trained = new HashSet<>();
+            for (List<String> sentence : sentences) {
+                trained.addAll(runs(sentence, order));
+            }
+            OrderKChain chain = new OrderKChain(order, new Random(1200)::nextInt);
+            chain.train(sentences.stream());
+            for (int i = 0; i < 100; i++) {
+                List<String> generated = sentence(chain);
+                assertFalse(generated.isEmpty());
+                for (List<String> run : runs(generated, order)) {
+                    assertTrue(trained.contains(run), run.toString());
+                }
+            }
+        }
+    }
+
+    private static List<List<String>> runs(List<String> sentence, int order) {
+        List<String> padded = new ArrayList<>();
+        for (int i = 0; i < order; i++) {
+            padded.add(null);
+        }
+        padded.addAll(sentence);
+        padded.add(MarkovChain.END_TOKEN);
+        List<List<String>> runs = new ArrayList<>();
+        for (int i = 0; i + order < padded.size(); i++) {
+            runs.add(new ArrayList<>(padded.subList(i, i + order + 1)));
+        }
+        return runs;
+    }
+
+    @Test
+    public void testOrderTwoFollowsBothWords() {
+        OrderKChain chain = new OrderKChain(2, new RandomNumberGenerator());
+        chain.train(Arrays.asList("a", "big", "dog").iterator());
+        chain.train(Arrays.asList("the", "big", "cat").iterator());
+        for (int i = 0; i < 20; i++) {
+            List<String> generated = sentence(chain);
+            assertTrue(
+                    generated.equals(Arrays.asList("a", "big", "dog"))
+                            || generated.equals(Arrays.asList("the", "big", "cat")),
+                    generated.toString()
+            );
+        }
+    }
+
+    @Test
+    public void testResetWithStartWord() {
+        OrderKChain chain = new OrderKChain(2, bound -> 0);
+        chain.train(Arrays.asList("a", "big", "dog").iterator());
+        chain.train(Arrays.asList("big", "cat").iterator());
+
+        chain.reset("big");
+        assertEquals("big", chain.next());
+        assertEquals("cat", chain.next());
+        assertFalse(chain.hasNext());
+
+        chain.reset("unseen");
+        assertEquals("unseen", chain.next());
+        assertFalse(chain.hasNext());
+        assertThrows(NoSuchElementException.class, chain::next);
+    }
+
+    @Test
+    public void testEmptyChain() {
+        OrderKChain chain = new OrderKChain(3, new RandomNumberGenerator());
+        chain.train(new ArrayList<String>().iterator());
+        assertFalse(chain.hasNext());
+        chain.reset();
+        assertFalse(chain.hasNext());
+    }
+
+    @Test
+    public void testContextsGrowWithOrder() {
+        List<List<String>> sentences = sentences();
+        long previous = 0;
+        for (int order = 1; order <= 4; order++) {
+            OrderKChain chain = new OrderKChain(order, new RandomNumberGenerator());
+            chain.train(sentences.stream());
+            assertEquals(order, chain.order());
+            assertTrue(chain.contexts() > previous);
+            previous = chain.contexts();
+        }
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new OrderKChain(0, new RandomNumberGenerator()));
+        assertThrows(IllegalArgumentException.class, () -> new OrderKChain(2, null));
+        OrderKChain chain = new OrderKChain(2, new RandomNumberGenerator());
+        assertThrows(IllegalArgumentException.class,
+                () -> chain.train((Iterator<String>) null));
+        assertThrows(IllegalArgumentException.class, () -> chain.reset(null));
+    }
+
+    @Test
+    public void testBackoffReachesShorterContexts() {
+        OrderKChain plain = new OrderKChain(2, new Random(1200)::nextInt);
+        OrderKChain backoff = new OrderKChain(2, new Random(1200)::nextInt, true);
+        for (OrderKChain chain : Arrays.asList(plain, backoff)) {
+            chain.train(Arrays.asList("a", "big", "dog").iterator());
+            chain.train(Arrays.asList("the", "big", "cat").iterator());
+        }
+        Set<List<String>> fromPlain = new HashSet<>();
+        Set<List<String>> fromBackoff = new HashSet<>();
+        for (int i = 0; i < 200; i++) {
+            fromPlain.add(sentence(plain));
+            fromBackoff.add(sentence(backoff));
+        }
+        assertFalse(fromPlain.contains(Arrays.asList("a", "big", "cat")));
+        assertTrue(fromBackoff.contains(Arrays.asList("a", "big", "cat")));
+        assertTrue(fromBackoff.contains(Arrays.asList("a", "big", "dog")));
+        assertTrue(backoff.backoff());
+        assertFalse(plain.backoff());
+    }
+
+    @Test
+    public void testBackoffOnlyUsesTrainedBigrams() {
+        List<List<String>> sentences = sentences();
+        Set<List<String>> trained = new HashSet<>();
+        for (List<String> sentence : sentences) {
+            trained.addAll(runs(sentence, 1));
+        }
+        OrderKChain chain = new OrderKChain(3, new Random(1200)::nextInt, true);
+        chain.train(sentences.stream());
+        for (int i = 0; i < 100; i++) {
+            List<String> generated = sentence(chain);
+            assertFalse(generated.isEmpty());
+            for (List<String> run : runs(generated, 1)) {
+                assertTrue(trained.contains(run), run.toString());
+            }
+        }
+    }
+
+    @Test
+    public void testBackoffContinuesUnseenContext() {
+        OrderKChain chain = new OrderKChain(3, bound -> 0, true);
+        chain.train(Arrays.asList("a", "big", "dog").iterator());
+
+        // "big" never started a sentence, but was followed by "dog"
+        chain.reset("big");
+        assertEquals("big", chain.next());
+        assertEquals("dog", chain.next());
+        assertFalse(chain.hasNext());
+
+        chain.reset("unseen");
+        assertEquals("unseen", chain.next());
+        assertFalse(chain.hasNext());
+    }
+
+    @Test
+    public void testOrderOneBackoffIsPlain() {
+        List<List<String>> sentences = sentences();
+        OrderKChain plain = new OrderKChain(1, new Random(1200)::nextInt);
+        OrderKChain backoff = new OrderKChain(1, new Random(1200)::nextInt, true);
+        plain.train(sentences.stream());
+        backoff.train(sentences.stream());
+        for (int i = 0; i < 50; i++) {
+            assertEquals(sentence(plain), sentence(backoff));
+        }
+        assertEquals(plain.bytes(), backoff.bytes());
+    }
+}
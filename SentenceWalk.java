@@ -0,0 +1,29 @@
+package org.cis1200;
+
+import java.util.Iterator;
+
+/**
+ * A SentenceWalk generates sentences one word at a time, as TwitterBot needs
+ * to build tweets: next() returns the words of the current sentence,
+ * hasNext() is false at its end, and reset() starts a new one. It is
+ * implemented by ChainCursor, over a model held on the heap, and by
+ * MappedModel.Cursor, over a model read from a mapped file.
+ */
+interface SentenceWalk extends Iterator<String> {
+    /**
+     * Begins a sentence at a start word picked at random, so that the next
+     * call to next() returns that start word. If nothing was trained, the
+     * sentence is empty.
+     */
+    void reset();
+
+    /**
+     * Returns the word that the next call to next() will return, without
+     * advancing the walk or drawing a random number.
+     *
+     * @return the upcoming word
+     * @throws java.util.NoSuchElementException if there are no more words in
+     *                                          the sentence
+     */
+    String peek();
+}
@@ -0,0 +1,67 @@
+package org.cis1200;
+
+import java.util.SplittableRandom;
+
+/**
+ * A SplittableNumberGenerator is a NumberGenerator backed by a
+ * java.util.SplittableRandom. It is the generator the bot uses unless it is
+ * given another one.
+ * <p>
+ * RandomNumberGenerator uses java.util.Random, which updates its seed with a
+ * compare-and-set on every draw so that it can be shared between threads.
+ * That costs time even on one thread, and threads that share one Random
+ * retry each other's updates. A SplittableRandom keeps its state in a plain
+ * field, so a draw is a few arithmetic operations. Bounded draws are
+ * unbiased: SplittableRandom.nextInt(bound) rejects the values that a plain
+ * modulo would over-represent.
+ * <p>
+ * A SplittableNumberGenerator is not thread-safe. Instead of sharing one,
+ * give each thread or task its own with {@link #split()}. Split generators
+ * are statistically independent, and a tree of splits made in the same
+ * order from the same seed always gives the same numbers.
+ */
+public class SplittableNumberGenerator implements NumberGenerator {
+    private final SplittableRandom random;
+
+    /**
+     * Creates a generator whose seed differs from that of every other
+     * generator created this way in the JVM.
+     */
+    public SplittableNumberGenerator() {
+        this(new SplittableRandom());
+    }
+
+    /**
+     * Creates a generator that always gives the same numbers for the same
+     * seed.
+     *
+     * @param seed - the seed
+     */
+    public SplittableNumberGenerator(long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    private SplittableNumberGenerator(SplittableRandom random) {
+        this.random = random;
+    }
+
+    /**
+     * @param bound - the (positive) upper bound
+     * @return a uniformly distributed number in the range [0, bound)
+     * @throws IllegalArgumentException if bound is not positive
+     */
+    @Override
+    public int next(int bound) {
+        return random.nextInt(bound);
+    }
+
+    /**
+     * Splits off a new generator, which shares no state with this one. This
+     * generator's numbers change, since splitting draws from it.
+     *
+     * @return a new, independent generator
+     */
+    public SplittableNumberGenerator split() {
+        return new SplittableNumberGenerator(random.split());
+    }
+}
@@ -0,0 +1,73 @@
+package org.cis1200;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/** Tests for SplittableNumberGenerator */
+public class SplittableNumberGeneratorTest {
+
+    private static List<Integer> draws(NumberGenerator ng, int n) {
+        List<Integer> draws = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            draws.add(ng.next(1000));
+        }
+        return draws;
+    }
+
+    @Test
+    public void testSameSeedSameNumbers() {
+        assertEquals(
+                draws(new SplittableNumberGenerator(1200), 100),
+                draws(new SplittableNumberGenerator(1200), 100)
+        );
+        assertNotEquals(
+                draws(new SplittableNumberGenerator(1200), 100),
+                draws(new SplittableNumberGenerator(1201), 100)
+        );
+        SplittableRandom random = new SplittableRandom(1200);
+        assertEquals(draws(random::nextInt, 100), draws(new SplittableNumberGenerator(1200), 100));
+    }
+
+    @Test
+    public void testDrawsAreInRangeAndUnbiased() {
+        SplittableNumberGenerator ng = new SplittableNumberGenerator(1200);
+        // a bound just over 2^31 / 3, where modulo would favor small numbers
+        int bound = (1 << 30) + (1 << 29);
+        int low = 0;
+        int n = 100_000;
+        for (int i = 0; i < n; i++) {
+            int draw = ng.next(bound);
+            assertTrue(draw >= 0 && draw < bound);
+            if (draw < bound / 2) {
+                low++;
+            }
+        }
+        // modulo would put about two thirds of the draws in the lower half
+        assertTrue(Math.abs(low - n / 2) < n / 50, Integer.toString(low));
+    }
+
+    @Test
+    public void testSplitsAreReproducibleAndIndependent() {
+        SplittableNumberGenerator first = new SplittableNumberGenerator(1200);
+        SplittableNumberGenerator second = new SplittableNumberGenerator(1200);
+        SplittableNumberGenerator firstChild = first.split();
+        SplittableNumberGenerator secondChild = second.split();
+        assertEquals(draws(firstChild, 100), draws(secondChild, 100));
+        assertEquals(draws(first, 100), draws(second, 100));
+        assertNotEquals(draws(first.split(), 100), draws(first, 100));
+    }
+
+    @Test
+    public void testInvalidBound() {
+        SplittableNumberGenerator ng = new SplittableNumberGenerator();
+        assertThrows(IllegalArgumentException.class, () -> ng.next(0));
+        assertThrows(IllegalArgumentException.class, () -> ng.next(-1));
+    }
+}
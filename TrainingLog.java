@@ -0,0 +1,212 @@
+package org.cis1200;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * A TrainingLog is an append-only file of training batches, each a list of
+ * cleaned sentences. Replaying the log on top of the snapshot it was started
+ * from rebuilds a MarkovChain without re-reading any CSV (see OnlineTrainer).
+ * <p>
+ * Each batch is one record:
+ * <pre>
+ *   int length, int CRC-32 of the rest, long sequence,
+ *   int sentences, and for each: int words, then each word's UTF-8 bytes
+ *   (as an int length followed by the bytes)
+ * </pre>
+ * where length counts the bytes after the CRC. Sequences start at 1 and go up
+ * by one per batch. A record is written with a single write and forced to
+ * disk before append() returns. A crash can only leave a partial record at
+ * the end of the file; replay stops there, and opening the log for appending
+ * cuts it off.
+ */
+class TrainingLog implements Closeable {
+    /** bytes before a record's payload: length and CRC */
+    private static final int HEADER = 8;
+
+    private final FileChannel channel;
+    /** the sequence of the last batch in the log */
+    private long sequence;
+
+    /**
+     * Opens a log for appending, creating it if it does not exist and
+     * removing any partial record a crash left at its end.
+     *
+     * @param filePath - the path of the log file
+     * @param after    - the lowest sequence the next batch may follow, such
+     *                 as the sequence of the snapshot the log extends
+     * @throws IOException if the log cannot be opened
+     */
+    TrainingLog(String filePath, long after) throws IOException {
+        if (filePath == null) {
+            throw new IllegalArgumentException();
+        }
+        Path path = Path.of(filePath);
+        Scan scan = scan(path, Long.MAX_VALUE, null);
+        channel = FileChannel.open(
+                path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE
+        );
+        channel.truncate(scan.end);
+        channel.position(scan.end);
+        sequence = Math.max(after, scan.sequence);
+    }
+
+    /**
+     * @return the sequence of the last batch in the log, or 0 if it is empty
+     */
+    long sequence() {
+        return sequence;
+    }
+
+    /**
+     * Appends one batch to the log and forces it to disk.
+     *
+     * @param batch - the (non-null) sentences of the batch
+     * @return the sequence of the new batch
+     * @throws IOException if the batch cannot be written
+     */
+    long append(List<? extends List<String>> batch) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0);
+        out.writeInt(0);
+        out.writeLong(sequence + 1);
+        out.writeInt(batch.size());
+        for (List<String> sentence : batch) {
+            out.writeInt(sentence.size());
+            for (String word : sentence) {
+                byte[] utf8 = word.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(utf8.length);
+                out.write(utf8);
+            }
+        }
+        ByteBuffer record = ByteBuffer.wrap(bytes.toByteArray());
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), HEADER, record.limit() - HEADER);
+        record.putInt(0, record.limit() - HEADER);
+        record.putInt(4, (int) crc.getValue());
+        long start = channel.position();
+        try {
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            // do not leave a partial record for the next batch to follow
+            try {
+                channel.truncate(start);
+                channel.position(start);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+        return ++sequence;
+    }
+
+    /**
+     * Removes every batch from the log, for example once they are all part of
+     * a snapshot. Sequences keep counting up from where they were.
+     *
+     * @throws IOException if the log cannot be truncated
+     */
+    void clear() throws IOException {
+        channel.truncate(0);
+        channel.position(0);
+        channel.force(true);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Passes every complete batch with a sequence above after to consumer, in
+     * order. A missing log has no batches.
+     *
+     * @param filePath - the path of the log file
+     * @param after    - the sequence of the last batch to skip
+     * @param consumer - receives each batch's sentences
+     * @return the sequence of the last batch in the log, or after if there are
+     *         none beyond it
+     * @throws IOException if the log cannot be read
+     */
+    static long replay(String filePath, long after, Consumer<List<List<String>>> consumer)
+            throws IOException {
+        if (filePath == null || consumer == null) {
+            throw new IllegalArgumentException();
+        }
+        return Math.max(after, scan(Path.of(filePath), after, consumer).sequence);
+    }
+
+    /** Where the complete records of a log end, and the last one's sequence. */
+    private static final class Scan {
+        long end;
+        long sequence;
+    }
+
+    /**
+     * Reads the complete records of a log, stopping at the first partial or
+     * damaged one, and passes the batches with a sequence above after to
+     * consumer (if it is not null).
+     */
+    private static Scan scan(Path path, long after, Consumer<List<List<String>>> consumer)
+            throws IOException {
+        Scan scan = new Scan();
+        if (!Files.exists(path)) {
+            return scan;
+        }
+        ByteBuffer log = ByteBuffer.wrap(Files.readAllBytes(path));
+        while (log.remaining() >= HEADER) {
+            int length = log.getInt();
+            int crc = log.getInt();
+            if (length < Long.BYTES + Integer.BYTES || length > log.remaining()) {
+                break;
+            }
+            ByteBuffer payload = log.slice(log.position(), length);
+            CRC32 check = new CRC32();
+            check.update(payload.duplicate());
+            if ((int) check.getValue() != crc) {
+                break;
+            }
+            long sequence = payload.getLong();
+            if (consumer != null && sequence > after) {
+                consumer.accept(batch(payload));
+            }
+            log.position(log.position() + length);
+            scan.end = log.position();
+            scan.sequence = sequence;
+        }
+        return scan;
+    }
+
+    private static List<List<String>> batch(ByteBuffer payload) {
+        int sentences = payload.getInt();
+        List<List<String>> batch = new ArrayList<>(sentences);
+        for (int i = 0; i < sentences; i++) {
+            int words = payload.getInt();
+            List<String> sentence = new ArrayList<>(words);
+            for (int j = 0; j < words; j++) {
+                byte[] utf8 = new byte[payload.getInt()];
+                payload.get(utf8);
+                sentence.add(new String(utf8, StandardCharsets.UTF_8));
+            }
+            batch.add(sentence);
+        }
+        return batch;
+    }
+}
@@ -0,0 +1,92 @@
+package org.cis1200;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/** Tests for TrainingLog */
+public class TrainingLogTest {
+
+    private static final List<List<String>> FIRST = Arrays.asList(
+            Arrays.asList("a", "table"), Arrays.asList("caf\u00e9", "ol\u00e9")
+    );
+    private static final List<List<String>> SECOND = Arrays.asList(
+            Arrays.asList("a", "banana"), new ArrayList<String>()
+    );
+
+    // A helper function that reads every batch after a sequence
+    private static List<List<List<String>>> replay(Path path, long after) throws IOException {
+        List<List<List<String>>> batches = new ArrayList<>();
+        TrainingLog.replay(path.toString(), after, batches::add);
+        return batches;
+    }
+
+    @Test
+    public void testAppendAndReplay() throws IOException {
+        Path path = Files.createTempDirectory("log").resolve("training.log");
+        try (TrainingLog log = new TrainingLog(path.toString(), 0)) {
+            assertEquals(1, log.append(FIRST));
+            assertEquals(2, log.append(SECOND));
+        }
+        assertEquals(Arrays.asList(FIRST, SECOND), replay(path, 0));
+        assertEquals(Arrays.asList(SECOND), replay(path, 1));
+        assertEquals(new ArrayList<>(), replay(path, 2));
+    }
+
+    @Test
+    public void testMissingLogIsEmpty() throws IOException {
+        Path path = Files.createTempDirectory("log").resolve("missing.log");
+        assertEquals(5, TrainingLog.replay(path.toString(), 5, batch -> fail()));
+    }
+
+    @Test
+    public void testPartialRecordIsIgnoredAndCutOff() throws IOException {
+        Path path = Files.createTempDirectory("log").resolve("training.log");
+        try (TrainingLog log = new TrainingLog(path.toString(), 0)) {
+            log.append(FIRST);
+        }
+        long complete = Files.size(path);
+        byte[] torn = { 0, 0, 0, 40, 1, 2, 3 };
+        Files.write(path, torn, StandardOpenOption.APPEND);
+        assertEquals(Arrays.asList(FIRST), replay(path, 0));
+
+        try (TrainingLog log = new TrainingLog(path.toString(), 0)) {
+            assertEquals(complete, Files.size(path));
+            assertEquals(1, log.sequence());
+            assertEquals(2, log.append(SECOND));
+        }
+        assertEquals(Arrays.asList(FIRST, SECOND), replay(path, 0));
+    }
+
+    @Test
+    public void testDamagedRecordStopsReplay() throws IOException {
+        Path path = Files.createTempDirectory("log").resolve("training.log");
+        try (TrainingLog log = new TrainingLog(path.toString(), 0)) {
+            log.append(FIRST);
+            log.append(SECOND);
+        }
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length - 3] ^= 1;
+        Files.write(path, bytes);
+        assertEquals(Arrays.asList(FIRST), replay(path, 0));
+    }
+
+    @Test
+    public void testClearKeepsSequence() throws IOException {
+        Path path = Files.createTempDirectory("log").resolve("training.log");
+        try (TrainingLog log = new TrainingLog(path.toString(), 7)) {
+            assertEquals(8, log.append(FIRST));
+            log.clear();
+            assertEquals(9, log.append(SECOND));
+        }
+        assertEquals(Arrays.asList(SECOND), replay(path, 8));
+    }
+}
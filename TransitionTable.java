@@ -0,0 +1,538 @@
+package org.cis1200;
+
+import java.util.Arrays;
+
+/**
+ * A TransitionTable stores how often each word (by Vocabulary id) is followed
+ * by each other word, using only primitive arrays.
+ * <p>
+ * While training, every distinct (from, to) pair is an "edge" with a count.
+ * Edges are found through an open-addressed hash table keyed on the two ids
+ * packed into a long, so recording a bigram never allocates.
+ * <p>
+ * Before sampling, the edges are compacted into CSR (compressed sparse row)
+ * form: the successors of word {@code w} are the positions
+ * {@code begin(w) .. end(w) - 1}, each with a {@link #target} and a
+ * {@link #count}. Within a row, successors are ordered by the natural order of
+ * their words, which is the same order a ProbabilityDistribution uses for its
+ * records. This keeps {@link #pick} choosing exactly the word that
+ * ProbabilityDistribution.pick would choose for the same random number.
+ * <p>
+ * Each row also stores running totals of its counts, so a pick is a binary
+ * search over the row instead of a walk through it: O(log fan-out) with no
+ * allocation, even for words with thousands of successors. (An alias table
+ * would be O(1), but it maps random numbers to words in a different order,
+ * which would break MarkovChain.fixDistribution.)
+ * <p>
+ * The compact form is rebuilt lazily the first time it is needed after more
+ * training data is recorded. A table can also be created directly from its
+ * compact form (see ModelSnapshot); its edge hash table is then only built if
+ * more training data is recorded.
+ * <p>
+ * Rebuilding always allocates new arrays, so compact arrays handed out by
+ * {@link #offsets}, {@link #targets} and {@link #counts} never change and can
+ * be shared with another table (see MarkovModel). A table that is never
+ * recorded into after it is built from compact form is read-only, and safe to
+ * read from several threads once safely published.
+ */
+class TransitionTable {
+    /** marks an empty slot in the edge hash table */
+    private static final int EMPTY = -1;
+    /** stands for the start of a sentence in a {@link #predecessors} table */
+    static final int SENTENCE_START = -2;
+
+    /** the vocabulary whose ids this table uses */
+    private final Vocabulary vocabulary;
+
+    // edges, in the order they were first recorded; null until needed when the
+    // table was created from its compact form
+    private int[] edgeFrom;
+    private int[] edgeTo;
+    private int[] edgeCount;
+    private int numEdges;
+
+    // open-addressed hash table from packed (from, to) to edge index
+    private long[] slotKeys;
+    private int[] slotEdges;
+
+    // compact (CSR) form, valid only when compiled is true
+    private boolean compiled;
+    /** the number of calls to record(), so a copy can tell it is stale */
+    private long version;
+    private int[] offsets;
+    private int[] targets;
+    private int[] counts;
+    /** cumulative[p] is the sum of the counts from the start of p's row to p */
+    private int[] cumulative;
+    private int[] totals;
+    private int numRows;
+    /**
+     * one more than the largest row recorded into; rows are usually word ids,
+     * but may be any ids, such as the contexts of an OrderKChain
+     */
+    private int rowLimit;
+
+    TransitionTable(Vocabulary vocabulary) {
+        this.vocabulary = vocabulary;
+        edgeFrom = new int[16];
+        edgeTo = new int[16];
+        edgeCount = new int[16];
+        slotKeys = new long[32];
+        slotEdges = new int[32];
+        Arrays.fill(slotEdges, EMPTY);
+    }
+
+    /**
+     * Creates a table from its compact form, as returned by {@link #offsets},
+     * {@link #targets} and {@link #counts}. Rows must already be in the order
+     * of the vocabulary's words. The arrays are used directly, not copied.
+     *
+     * @param vocabulary - the vocabulary whose ids the table uses
+     * @param offsets    - row start positions, one more than the number of rows
+     * @param targets    - successor ids
+     * @param counts     - successor counts
+     */
+    TransitionTable(Vocabulary vocabulary, int[] offsets, int[] targets, int[] counts) {
+        this.vocabulary = vocabulary;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.counts = counts;
+        this.numEdges = targets.length;
+        this.rowLimit = offsets.length - 1;
+        this.cumulative = new int[numEdges];
+        this.totals = new int[offsets.length - 1];
+        for (int w = 0; w < totals.length; w++) {
+            if (offsets[w] < offsets[w + 1]) {
+                numRows++;
+            }
+            for (int p = offsets[w]; p < offsets[w + 1]; p++) {
+                totals[w] += counts[p];
+                cumulative[p] = totals[w];
+            }
+        }
+        this.compiled = true;
+    }
+
+    /**
+     * Records one occurrence of the word with id {@code to} following the word
+     * with id {@code from}.
+     *
+     * @param from - id of the first word of the bigram
+     * @param to   - id of the second word of the bigram
+     */
+    void record(int from, int to) {
+        record(from, to, 1);
+    }
+
+    /**
+     * Records several occurrences of the word with id {@code to} following the
+     * word with id {@code from}.
+     *
+     * @param from  - id of the first word of the bigram
+     * @param to    - id of the second word of the bigram
+     * @param times - how many occurrences to record
+     */
+    void record(int from, int to, int times) {
+        if (edgeFrom == null) {
+            thaw();
+        }
+        if (from >= rowLimit) {
+            rowLimit = from + 1;
+        }
+        long key = pack(from, to);
+        int slot = find(key);
+        int edge = slotEdges[slot];
+        if (edge == EMPTY) {
+            if (numEdges == edgeFrom.length) {
+                int capacity = numEdges * 2;
+                edgeFrom = Arrays.copyOf(edgeFrom, capacity);
+                edgeTo = Arrays.copyOf(edgeTo, capacity);
+                edgeCount = Arrays.copyOf(edgeCount, capacity);
+            }
+            edge = numEdges++;
+            edgeFrom[edge] = from;
+            edgeTo[edge] = to;
+            slotKeys[slot] = key;
+            slotEdges[slot] = edge;
+            if (numEdges * 2 > slotEdges.length) {
+                rehash();
+            }
+        }
+        edgeCount[edge] += times;
+        compiled = false;
+        version++;
+    }
+
+    /**
+     * @return a number that changes whenever a count is recorded
+     */
+    long version() {
+        return version;
+    }
+
+    /**
+     * @param from - a word id
+     * @param to   - a word id
+     * @return how often to was recorded following from, or 0 if never
+     */
+    int recorded(int from, int to) {
+        if (edgeFrom == null) {
+            thaw();
+        }
+        int edge = slotEdges[find(pack(from, to))];
+        return edge == EMPTY ? 0 : edgeCount[edge];
+    }
+
+    /**
+     * Adds every count recorded in another table to this one.
+     *
+     * @param other - a table, usually over a different vocabulary
+     * @param ids   - maps each id of other's vocabulary to an id of this
+     *              table's vocabulary
+     */
+    void addAll(TransitionTable other, int[] ids) {
+        if (other.edgeFrom == null) {
+            other.thaw();
+        }
+        for (int e = 0; e < other.numEdges; e++) {
+            record(ids[other.edgeFrom[e]], ids[other.edgeTo[e]], other.edgeCount[e]);
+        }
+    }
+
+    /**
+     * Builds the reverse of this table: row w of the result lists every word
+     * recorded before w, with the same counts, so that pick() on it walks
+     * backwards through sentences. If w started any sentences, row w also
+     * holds SENTENCE_START, counted as often as w started a sentence.
+     *
+     * @param startTable - start word counts, in row MarkovChain.START_ROW
+     * @return a new read-only table of predecessors
+     */
+    TransitionTable predecessors(TransitionTable startTable) {
+        compile();
+        int n = vocabulary.size();
+        int[] starts = startTable.offsets();
+        int[] startTargets = startTable.targets();
+        int[] startCounts = startTable.counts();
+        int startBegin = starts.length > 1 ? starts[MarkovChain.START_ROW] : 0;
+        int startEnd = starts.length > 1 ? starts[MarkovChain.START_ROW + 1] : 0;
+
+        int[] reverseOffsets = new int[n + 1];
+        for (int p = startBegin; p < startEnd; p++) {
+            reverseOffsets[startTargets[p] + 1]++;
+        }
+        for (int p = 0; p < numEdges; p++) {
+            reverseOffsets[targets[p] + 1]++;
+        }
+        for (int w = 0; w < n; w++) {
+            reverseOffsets[w + 1] += reverseOffsets[w];
+        }
+        int edges = reverseOffsets[n];
+        int[] reverseTargets = new int[edges];
+        int[] reverseCounts = new int[edges];
+        int[] fill = Arrays.copyOf(reverseOffsets, n);
+        for (int p = startBegin; p < startEnd; p++) {
+            int at = fill[startTargets[p]]++;
+            reverseTargets[at] = SENTENCE_START;
+            reverseCounts[at] = startCounts[p];
+        }
+        for (int from = 0; from < numRowsAllocated(); from++) {
+            for (int p = offsets[from]; p < offsets[from + 1]; p++) {
+                int at = fill[targets[p]]++;
+                reverseTargets[at] = from;
+                reverseCounts[at] = counts[p];
+            }
+        }
+        return new TransitionTable(vocabulary, reverseOffsets, reverseTargets, reverseCounts);
+    }
+
+    /**
+     * @return the number of distinct (from, to) pairs recorded
+     */
+    int edges() {
+        return numEdges;
+    }
+
+    /**
+     * @return the approximate size in bytes of the compact form, including its
+     *         running totals
+     */
+    long bytes() {
+        compile();
+        return Integer.BYTES * ((long) offsets.length + totals.length + 3L * numEdges);
+    }
+
+    /**
+     * @return the number of words that have at least one successor
+     */
+    int rows() {
+        compile();
+        return numRows;
+    }
+
+    /**
+     * @param from - a word id
+     * @return true if at least one bigram starting with from was recorded
+     */
+    boolean hasSuccessors(int from) {
+        compile();
+        return from >= 0 && from < numRowsAllocated() && offsets[from] < offsets[from + 1];
+    }
+
+    /**
+     * @param from - a word id with successors
+     * @return the first CSR position of from's successors
+     */
+    int begin(int from) {
+        compile();
+        return offsets[from];
+    }
+
+    /**
+     * @param from - a word id with successors
+     * @return one past the last CSR position of from's successors
+     */
+    int end(int from) {
+        compile();
+        return offsets[from + 1];
+    }
+
+    /**
+     * @return the CSR row start positions; must not be modified
+     */
+    int[] offsets() {
+        compile();
+        return offsets;
+    }
+
+    /**
+     * @return the CSR successor ids; must not be modified
+     */
+    int[] targets() {
+        compile();
+        return targets;
+    }
+
+    /**
+     * @return the CSR successor counts; must not be modified
+     */
+    int[] counts() {
+        compile();
+        return counts;
+    }
+
+    /**
+     * @param position - a CSR position
+     * @return the id of the successor stored at position
+     */
+    int target(int position) {
+        return targets[position];
+    }
+
+    /**
+     * @param position - a CSR position
+     * @return how often the successor at position was recorded
+     */
+    int count(int position) {
+        return counts[position];
+    }
+
+    /**
+     * @param from - a word id with successors
+     * @return the total number of bigrams recorded that start with from
+     */
+    int total(int from) {
+        compile();
+        return totals[from];
+    }
+
+    /**
+     * Picks a successor of from at random with absolute discounting: half a
+     * count is taken from every successor and set aside for backing off to a
+     * shorter context, so a row with total t and n successors backs off with
+     * probability n / 2t. Everything the pick needs is already in the
+     * compact form (the running totals and the row length), so it costs the
+     * same as {@link #pick}. Draws exactly one number from ng, in the range
+     * [0, 2 * total(from)), unless from has no successors, in which case
+     * nothing is drawn. A row whose doubled total does not fit in an int
+     * draws in [0, total(from)) instead and uses only the even positions of
+     * the doubled range, which shifts each probability by at most one part in
+     * 2^30.
+     *
+     * @param from - a row id
+     * @param ng   - the source of random numbers
+     * @return the id of the chosen successor, or -1 if from has no successors
+     *         or the pick backs off
+     */
+    int pickDiscounted(int from, NumberGenerator ng) {
+        if (!hasSuccessors(from)) {
+            return -1;
+        }
+        int begin = offsets[from];
+        int end = offsets[from + 1];
+        long doubled = 2L * totals[from];
+        long index = doubled <= Integer.MAX_VALUE
+                ? ng.next((int) doubled)
+                : 2L * ng.next(totals[from]);
+        if (index >= doubled - (end - begin)) {
+            return -1;
+        }
+        // the running total of the discounted counts 2c - 1 at position p is
+        // 2 * cumulative[p] - (p - begin + 1)
+        int low = begin;
+        int high = end - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (2L * cumulative[mid] - (mid - begin + 1) > index) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return targets[low];
+    }
+
+    /**
+     * Picks a successor of from at random, weighted by the recorded counts.
+     * Draws exactly one number from ng, in the range [0, total(from)), unless
+     * from has no successors, in which case nothing is drawn.
+     *
+     * @param from - a word id
+     * @param ng   - the source of random numbers
+     * @return the id of the chosen successor, or -1 if from has no successors
+     */
+    int pick(int from, NumberGenerator ng) {
+        if (!hasSuccessors(from)) {
+            return -1;
+        }
+        int index = ng.next(totals[from]);
+        // find the first position whose running total exceeds index
+        int low = offsets[from];
+        int high = offsets[from + 1] - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulative[mid] > index) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return targets[low];
+    }
+
+    /**
+     * Rebuilds the CSR arrays if anything was recorded since the last build.
+     */
+    private void compile() {
+        if (compiled) {
+            return;
+        }
+        int n = Math.max(vocabulary.size(), rowLimit);
+        int words = vocabulary.size();
+        int[] rank = new int[words];
+        int[] sortedIds = vocabulary.sortedIds();
+        for (int i = 0; i < words; i++) {
+            rank[sortedIds[i]] = i;
+        }
+
+        offsets = new int[n + 1];
+        for (int e = 0; e < numEdges; e++) {
+            offsets[edgeFrom[e] + 1]++;
+        }
+        numRows = 0;
+        for (int w = 0; w < n; w++) {
+            if (offsets[w + 1] > 0) {
+                numRows++;
+            }
+            offsets[w + 1] += offsets[w];
+        }
+
+        // order each row by the rank of the successor, carrying the edge index
+        long[] keys = new long[numEdges];
+        int[] fill = Arrays.copyOf(offsets, n);
+        for (int e = 0; e < numEdges; e++) {
+            keys[fill[edgeFrom[e]]++] = ((long) rank[edgeTo[e]] << 32) | e;
+        }
+        targets = new int[numEdges];
+        counts = new int[numEdges];
+        cumulative = new int[numEdges];
+        totals = new int[n];
+        for (int w = 0; w < n; w++) {
+            Arrays.sort(keys, offsets[w], offsets[w + 1]);
+            for (int p = offsets[w]; p < offsets[w + 1]; p++) {
+                int e = (int) keys[p];
+                targets[p] = edgeTo[e];
+                counts[p] = edgeCount[e];
+                totals[w] += edgeCount[e];
+                cumulative[p] = totals[w];
+            }
+        }
+        compiled = true;
+    }
+
+    /**
+     * Rebuilds the edge arrays and hash table from the compact form, so that
+     * more training data can be recorded.
+     */
+    private void thaw() {
+        int capacity = Math.max(16, Integer.highestOneBit(Math.max(1, numEdges)) * 2);
+        edgeFrom = new int[capacity];
+        edgeTo = new int[capacity];
+        edgeCount = new int[capacity];
+        slotKeys = new long[capacity * 2];
+        slotEdges = new int[capacity * 2];
+        Arrays.fill(slotEdges, EMPTY);
+        for (int w = 0; w < offsets.length - 1; w++) {
+            for (int p = offsets[w]; p < offsets[w + 1]; p++) {
+                edgeFrom[p] = w;
+                edgeTo[p] = targets[p];
+                edgeCount[p] = counts[p];
+                int slot = find(pack(w, targets[p]));
+                slotKeys[slot] = pack(w, targets[p]);
+                slotEdges[slot] = p;
+            }
+        }
+    }
+
+    /** @return the number of word ids covered by the current CSR arrays */
+    private int numRowsAllocated() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * Finds the slot holding key, or the empty slot where it would go.
+     */
+    private int find(long key) {
+        int mask = slotEdges.length - 1;
+        int slot = mix(key) & mask;
+        while (slotEdges[slot] != EMPTY && slotKeys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash() {
+        long[] oldKeys = slotKeys;
+        int[] oldEdges = slotEdges;
+        slotKeys = new long[oldKeys.length * 2];
+        slotEdges = new int[oldEdges.length * 2];
+        Arrays.fill(slotEdges, EMPTY);
+        for (int i = 0; i < oldEdges.length; i++) {
+            if (oldEdges[i] != EMPTY) {
+                int slot = find(oldKeys[i]);
+                slotKeys[slot] = oldKeys[i];
+                slotEdges[slot] = oldEdges[i];
+            }
+        }
+    }
+
+    private static long pack(int from, int to) {
+        return ((long) from << 32) | (to & 0xFFFFFFFFL);
+    }
+
+    /** Spreads the bits of a packed key so that low bits vary. */
+    private static int mix(long key) {
+        key *= 0x9E3779B97F4A7C15L;
+        return (int) (key ^ (key >>> 32));
+    }
+}
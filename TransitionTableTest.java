@@ -0,0 +1,135 @@
+package org.cis1200;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tests for TransitionTable */
+public class TransitionTableTest {
+
+    @Test
+    public void testRecordCountsRepeatedEdges() {
+        Vocabulary v = new Vocabulary();
+        TransitionTable t = new TransitionTable(v);
+        int a = v.intern("a");
+        int b = v.intern("b");
+        t.record(a, b);
+        t.record(a, b);
+        t.record(b, a);
+        assertEquals(2, t.edges());
+        assertEquals(2, t.rows());
+        assertEquals(2, t.total(a));
+        assertEquals(1, t.end(a) - t.begin(a));
+        assertEquals(b, t.target(t.begin(a)));
+        assertEquals(2, t.count(t.begin(a)));
+    }
+
+    @Test
+    public void testRowsAreOrderedByWord() {
+        Vocabulary v = new Vocabulary();
+        TransitionTable t = new TransitionTable(v);
+        int from = v.intern("from");
+        t.record(from, v.intern("zebra"));
+        t.record(from, v.intern("apple"));
+        t.record(from, v.intern("mango"));
+        int p = t.begin(from);
+        assertEquals("apple", v.word(t.target(p)));
+        assertEquals("mango", v.word(t.target(p + 1)));
+        assertEquals("zebra", v.word(t.target(p + 2)));
+    }
+
+    @Test
+    public void testPickUsesCumulativeCounts() {
+        Vocabulary v = new Vocabulary();
+        TransitionTable t = new TransitionTable(v);
+        int from = v.intern("the");
+        int[] ids = new int[100];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = v.intern(String.format("w%03d", i));
+            for (int c = 0; c <= i % 3; c++) {
+                t.record(from, ids[i]);
+            }
+        }
+        // counts cycle 1, 2, 3, ... so every group of three words covers six indexes
+        int index = 0;
+        for (int i = 0; i < ids.length; i++) {
+            for (int c = 0; c <= i % 3; c++) {
+                assertEquals(ids[i], t.pick(from, new ListNumberGenerator(new int[] { index })));
+                index++;
+            }
+        }
+        assertEquals(index, t.total(from));
+    }
+
+    @Test
+    public void testPickWithoutSuccessorsDrawsNothing() {
+        Vocabulary v = new Vocabulary();
+        TransitionTable t = new TransitionTable(v);
+        t.record(v.intern("a"), v.intern("b"));
+        NumberGenerator failing = bound -> {
+            throw new AssertionError("no number should be drawn");
+        };
+        assertEquals(-1, t.pick(v.intern("b"), failing));
+        assertEquals(-1, t.pick(-1, failing));
+        assertEquals(-1, t.pick(v.intern("c"), failing));
+    }
+
+    @Test
+    public void testRecordAfterPickRecompiles() {
+        Vocabulary v = new Vocabulary();
+        TransitionTable t = new TransitionTable(v);
+        int a = v.intern("a");
+        t.record(a, v.intern("b"));
+        assertEquals(1, t.total(a));
+        t.record(a, v.intern("aa"));
+        assertEquals(2, t.total(a));
+        assertEquals("aa", v.word(t.pick(a, new ListNumberGenerator(new int[] { 0 }))));
+    }
+
+    @Test
+    public void testPickDiscounted() {
+        Vocabulary v = new Vocabulary();
+        TransitionTable t = new TransitionTable(v);
+        int a = v.intern("a");
+        int b = v.intern("b");
+        int c = v.intern("c");
+        t.record(a, b);
+        t.record(a, c, 3);
+        // discounted counts b:1, c:5, and 2 set aside for backing off
+        String[] expected = { "b", "c", "c", "c", "c", "c", null, null };
+        for (int index = 0; index < expected.length; index++) {
+            int draw = index;
+            int picked = t.pickDiscounted(a, bound -> {
+                assertEquals(8, bound);
+                return draw;
+            });
+            assertEquals(expected[index], picked < 0 ? null : v.word(picked));
+        }
+        assertEquals(-1, t.pickDiscounted(b, bound -> {
+            throw new AssertionError("no number should be drawn");
+        }));
+    }
+
+    @Test
+    public void testPickDiscountedHeavyRow() {
+        Vocabulary v = new Vocabulary();
+        TransitionTable t = new TransitionTable(v);
+        int a = v.intern("a");
+        int b = v.intern("b");
+        int c = v.intern("c");
+        t.record(a, b, 1 << 30);
+        t.record(a, c, 1 << 29);
+        // 2 * total does not fit in an int, so the draw is in [0, total)
+        int total = (1 << 30) + (1 << 29);
+        int[] draws = { 0, (1 << 30) - 1, 1 << 30, total - 2, total - 1 };
+        String[] expected = { "b", "b", "c", "c", null };
+        for (int i = 0; i < draws.length; i++) {
+            int draw = draws[i];
+            int picked = t.pickDiscounted(a, bound -> {
+                assertEquals(total, bound);
+                return draw;
+            });
+            assertEquals(expected[i], picked < 0 ? null : v.word(picked));
+        }
+    }
+}
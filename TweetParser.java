@@ -1,7 +1,14 @@
 package org.cis1200;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import java.io.BufferedReader;
 
 /**
@@ -10,6 +17,9 @@ import java.io.BufferedReader;
  * of the tweets that would be bad inputs to MarkovChain (for example, a URL).
  * It then parses tweets into sentences and returns those sentences as lists
  * of cleaned-up words.
+ * <p>
+ * TweetParser.streamTrainingData() does the same work lazily, one tweet at a
+ * time, so that a corpus can be trained on without holding it all in memory.
  */
 public class TweetParser {
 
@@ -39,6 +49,15 @@ public class TweetParser {
     private static final String URL_REGEX_END_SPACE = "\\bhttp\\S*\\.\\s";
     private static final String URL_REGEX_END_STRING = "\\bhttp\\S*\\.$";
 
+    /**
+     * The regular expressions above, compiled once rather than on every call.
+     */
+    private static final Pattern BAD_WORD = Pattern.compile(BAD_WORD_REGEX);
+    private static final Pattern URL = Pattern.compile(URL_REGEX);
+    private static final Pattern URL_END_SPACE = Pattern.compile(URL_REGEX_END_SPACE);
+    private static final Pattern URL_END_STRING = Pattern.compile(URL_REGEX_END_STRING);
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
     /**
      * Valid punctuation marks.
      */
@@ -79,7 +98,7 @@ public class TweetParser {
      *         from the tweet
      */
     static List<String> tweetSplit(String tweet) {
-        List<String> sentences = new LinkedList<>();
+        List<String> sentences = new ArrayList<>();
         for (String sentence : replacePunctuation(tweet).split("\\.")) {
             sentence = sentence.trim();
             if (!sentence.equals("")) {
@@ -93,7 +112,8 @@ public class TweetParser {
      * Given a String that represents a CSV line extracted from a reader and an
      * int that represents the column of the String that we want
      * to extract from, return the contents of that column from the String.
-     * Columns in the buffered reader are zero indexed.
+     * Columns in the buffered reader are zero indexed. Quoted columns are
+     * handled as described in {@link CsvColumnIterator}.
      *
      * @param csvLine   - a line extracted from a FileLine Iterator
      * @param csvColumn - the column of the CSV line whose contents ought to be
@@ -105,13 +125,13 @@ public class TweetParser {
         if (csvLine == null) {
             return null;
         }
-        String[] arr = csvLine.split(",");
-        if (csvColumn < 0 || csvColumn >= arr.length) {
-            return null;
-        } else {
-            return arr[csvColumn];
+        if (csvLine.isEmpty()) {
+            // an empty line is a record with one empty column
+            return csvColumn == 0 ? "" : null;
         }
-         
+        return new CsvColumnIterator(
+                csvLine.toCharArray(), csvLine.length(), csvColumn
+        ).next();
     }
 
     /**
@@ -122,16 +142,26 @@ public class TweetParser {
      *         yet cleaned)
      */
     static List<String> csvDataToTweets(BufferedReader br, int tweetColumn) {
-        FileLineIterator iterator = new FileLineIterator(br);
-        List<String> l = new LinkedList<String>();
-        while (iterator.hasNext()) {
-            String line = iterator.next();
-            String col = extractColumn(line, tweetColumn);
-            if (col != null) {
-                l.add(col);
-            }
-        }
-        return l; 
+        return streamTweets(br, tweetColumn).collect(Collectors.toList());
+    }
+
+    /**
+     * Lazily extracts tweets from a reader. Records are read only as the
+     * stream is consumed, and a quoted tweet may span several lines.
+     *
+     * @param br          - a BufferedReader that represents tweets
+     * @param tweetColumn - the number of the column in the buffered reader
+     *                    that contains the tweet
+     * @return a sequential Stream of tweet Strings, none of which are null (but
+     *         that are not yet cleaned)
+     */
+    static Stream<String> streamTweets(BufferedReader br, int tweetColumn) {
+        CsvColumnIterator iterator = new CsvColumnIterator(br, tweetColumn);
+        Stream<String> columns = StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED),
+                false
+        );
+        return columns.filter(Objects::nonNull);
     }
 
     /**
@@ -145,7 +175,7 @@ public class TweetParser {
      */
     static String cleanWord(String word) {
         String cleaned = word.trim().toLowerCase();
-        if (cleaned.matches(BAD_WORD_REGEX) || cleaned.isEmpty()) {
+        if (BAD_WORD.matcher(cleaned).matches() || cleaned.isEmpty()) {
             return null;
         }
         return cleaned;
@@ -162,14 +192,20 @@ public class TweetParser {
      *         sentence. Any "bad" words are just dropped.
      */
     static List<String> parseAndCleanSentence(String sentence) {
-        String[] arr = sentence.split("\\s+");
-        List<String> result = new LinkedList<String>();
+        String[] arr = WHITESPACE.split(sentence);
+        List<String> result = new ArrayList<String>();
+        int dropped = 0;
         for (int i = 0; i < arr.length; i++) {
             String word = cleanWord(arr[i]);
             if (word != null) {
                 result.add(word);
+            } else if (!arr[i].isEmpty()) {
+                dropped++;
             }
         }
+        if (dropped > 0 && Metrics.enabled()) {
+            Metrics.DROPPED_WORDS.add(dropped);
+        }
         return result; 
     }
 
@@ -182,26 +218,41 @@ public class TweetParser {
      * @return s where each "URL-like" string has been deleted
      */
     static String removeURLs(String s) {
-        s = s.replaceAll(URL_REGEX_END_STRING, ".");
-        s = s.replaceAll(URL_REGEX_END_SPACE, ". ");
-        return s.replaceAll(URL_REGEX, "");
+        s = URL_END_STRING.matcher(s).replaceAll(".");
+        s = URL_END_SPACE.matcher(s).replaceAll(". ");
+        return URL.matcher(s).replaceAll("");
     }
 
     /**
      * Processes a tweet in to a list of sentences, where each sentence is
      * itself a (non-empty) list of cleaned words. Before breaking up the tweet
      * into sentences, this method uses removeURLs to sanitize the tweet. 
+     * <p>
+     * The work is done by a single pass of TweetScanner, which gives the same
+     * result as removeURLs, tweetSplit and parseAndCleanSentence several times
+     * faster; those methods are still used for the rare tweets that
+     * TweetScanner declines.
      * @param tweet - a String that will be split into sentences, each of which
      *              is cleaned as described above (assumed to be non-null)
      * @return a (non-null) list of sentences, each of which is a (non-empty)
      *         sequence of clean words drawn from the tweet.
      */
     static List<List<String>> parseAndCleanTweet(String tweet) {
+        List<List<String>> scanned = TweetScanner.scan(tweet);
+        if (scanned != null) {
+            if (Metrics.enabled()) {
+                Metrics.cleaned(scanned);
+            }
+            return scanned;
+        }
         tweet = removeURLs(tweet);
         List<String> sentences = tweetSplit(tweet);
-        List<List<String>> result = new LinkedList<List<String>>();
-        for (int i = 0; i < sentences.size(); i++) {
-            result.add(parseAndCleanSentence(sentences.get(i)));
+        List<List<String>> result = new ArrayList<List<String>>(sentences.size());
+        for (String sentence : sentences) {
+            result.add(parseAndCleanSentence(sentence));
+        }
+        if (Metrics.enabled()) {
+            Metrics.cleaned(result);
         }
         return result; 
     }
@@ -222,12 +273,69 @@ public class TweetParser {
             BufferedReader br,
             int tweetColumn
     ) {
-        List<String> tweets = csvDataToTweets(br, tweetColumn);
-        List<List<String>> cleanedTweets = new LinkedList<>();
-        for (int i = 0; i < tweets.size(); i++) {
-            cleanedTweets.addAll(parseAndCleanTweet(tweets.get(i)));
+        return streamTrainingData(br, tweetColumn).collect(Collectors.toList());
+    }
+
+    /**
+     * Computes the training set as above, and also adds every sentence of it
+     * to an NgramIndex, so that generated tweets can later be checked for
+     * copies of the training data.
+     *
+     * @param br          - a BufferedReader that contains the tweets
+     * @param tweetColumn - the number of the column in the buffered reader that
+     *                    contains the tweet
+     * @param index       - the (non-null) NgramIndex to add the sentences to
+     * @return a list of training data examples
+     */
+    public static List<List<String>> csvDataToTrainingData(
+            BufferedReader br,
+            int tweetColumn,
+            NgramIndex index
+    ) {
+        if (index == null) {
+            throw new IllegalArgumentException();
         }
-        return cleanedTweets; 
+        return streamTrainingData(br, tweetColumn)
+                .peek(index::add)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Lazily computes the same training set as csvDataToTrainingData. Each
+     * tweet is read and cleaned only when the stream reaches it, so consuming
+     * the stream (for example, training a MarkovChain with forEach) uses
+     * memory proportional to one tweet rather than to the whole corpus.
+     *
+     * @param br          - a BufferedReader that contains the tweets
+     * @param tweetColumn - the number of the column in the buffered reader that
+     *                    contains the tweet
+     * @return a sequential Stream of training data examples
+     */
+    public static Stream<List<String>> streamTrainingData(
+            BufferedReader br,
+            int tweetColumn
+    ) {
+        return streamTweets(br, tweetColumn)
+                .flatMap(tweet -> parseAndCleanTweet(tweet).stream());
+    }
+
+    /**
+     * Lazily computes the training set for the tweets in a memory-mapped CSV
+     * file. If the returned stream is made parallel, chunks of the file are
+     * decoded, parsed and cleaned concurrently.
+     *
+     * @param csv         - a MappedCsvReader for the file of tweets
+     * @param tweetColumn - the number of the column in the file that contains
+     *                    the tweet
+     * @return a sequential Stream of training data examples
+     */
+    public static Stream<List<String>> streamTrainingData(
+            MappedCsvReader csv,
+            int tweetColumn
+    ) {
+        return csv.columnStream(tweetColumn)
+                .filter(Objects::nonNull)
+                .flatMap(tweet -> parseAndCleanTweet(tweet).stream());
     }
 
 }
@@ -7,8 +7,10 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 
 import java.io.BufferedReader;
 import java.io.StringReader;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /** Tests for TweetParser */
 public class TweetParserTest {
@@ -418,4 +420,38 @@ public class TweetParserTest {
         assertTrue(thirdSentence.contains("last"));
     }
 
+    /* **** ****** ***** **** STREAMING TRAINING DATA **** ***** ****** **** */
+
+    @Test
+    public void testStreamTrainingDataMatchesList() {
+        String csvData = "0, This is tweet one\n"
+                + "1, Another tweet with URL: http://example.com. Two!\n"
+                + "2, Last tweet!;";
+        List<List<String>> expected = TweetParser.csvDataToTrainingData(
+                new BufferedReader(new StringReader(csvData)), 1);
+        List<List<String>> streamed = TweetParser.streamTrainingData(
+                new BufferedReader(new StringReader(csvData)), 1)
+                .collect(Collectors.toList());
+        assertEquals(expected, streamed);
+    }
+
+    @Test
+    public void testStreamTrainingDataIsLazy() {
+        StringBuilder csvData = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            csvData.append(i).append(", tweet number ").append(i).append("\n");
+        }
+        int[] linesRead = { 0 };
+        BufferedReader br = new BufferedReader(new StringReader(csvData.toString())) {
+            @Override
+            public String readLine() throws java.io.IOException {
+                linesRead[0]++;
+                return super.readLine();
+            }
+        };
+        Iterator<List<String>> sentences = TweetParser.streamTrainingData(br, 1).iterator();
+        assertEquals(listOfArray("tweet number 0".split(" ")), sentences.next());
+        assertTrue(linesRead[0] < 10);
+    }
+
 }
@@ -0,0 +1,167 @@
+package org.cis1200;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * TweetScanner.scan() turns a tweet into cleaned sentences in a single pass
+ * over its characters. It produces exactly what TweetParser's regular
+ * expression pipeline (removeURLs, then tweetSplit, then parseAndCleanSentence)
+ * produces, without compiling or running any regular expressions:
+ * <p>
+ * - A URL is "http" at the start of a word (i.e. not preceded by [a-zA-Z0-9_])
+ * up to the next whitespace. It is dropped, but if it ends with a '.' it still
+ * ends the sentence, just as removeURLs keeps that '.'.
+ * <p>
+ * - The punctuation marks '.', '?', '!' and ';' end sentences. A sentence with
+ * nothing but whitespace in it is dropped; a sentence whose words are all bad
+ * becomes an empty list.
+ * <p>
+ * - Words are separated by whitespace, lowercased, and dropped unless they
+ * consist only of [a-zA-Z0-9_'].
+ * <p>
+ * Words containing control characters, or the rare non-ASCII characters that
+ * lowercase to ASCII, are handed to TweetParser.cleanWord, and the few tweets
+ * whose regular expression treatment depends on how Unicode characters are
+ * classified are reported with null so the caller can fall back to the
+ * regular expressions.
+ */
+class TweetScanner {
+
+    private TweetScanner() {
+    }
+
+    /**
+     * Splits a tweet into sentences of clean words.
+     *
+     * @param tweet - a (non-null) tweet
+     * @return a list of sentences, each a list of clean words, or null if this
+     *         tweet must be handled by the regular expressions instead
+     */
+    static List<List<String>> scan(String tweet) {
+        int n = tweet.length();
+        if (n > 0 && isUnicodeLineTerminator(tweet.charAt(n - 1))) {
+            // "$" in URL_REGEX_END_STRING matches before these
+            return null;
+        }
+        List<List<String>> sentences = new ArrayList<>();
+        List<String> sentence = new ArrayList<>();
+        // whether the current sentence has anything that String.trim() keeps
+        boolean content = false;
+        // words and URLs left out, for Metrics
+        int dropped = 0;
+        int i = 0;
+        while (i < n) {
+            char c = tweet.charAt(i);
+            if (isWhitespace(c)) {
+                i++;
+            } else if (isPunctuation(c)) {
+                if (content) {
+                    sentences.add(sentence);
+                    sentence = new ArrayList<>();
+                    content = false;
+                }
+                i++;
+            } else if (tweet.startsWith("http", i)) {
+                // at the start of a token, so always a URL
+                int end = i + 4;
+                while (end < n && !isWhitespace(tweet.charAt(end))) {
+                    end++;
+                }
+                if (tweet.charAt(end - 1) == '.' && content) {
+                    sentences.add(sentence);
+                    sentence = new ArrayList<>();
+                    content = false;
+                }
+                dropped++;
+                i = end;
+            } else {
+                int start = i;
+                boolean simple = true;
+                boolean valid = true;
+                while (i < n) {
+                    c = tweet.charAt(i);
+                    if (isWhitespace(c) || isPunctuation(c)) {
+                        break;
+                    }
+                    if (c == 'h' && tweet.startsWith("http", i)) {
+                        char previous = tweet.charAt(i - 1);
+                        if (previous >= 0x80) {
+                            // \b treats non-ASCII letters differently across JDKs
+                            return null;
+                        }
+                        if (!isWordChar(previous)) {
+                            break;
+                        }
+                    }
+                    if (c < ' ' || isUnicodeLineTerminator(c)
+                            || (c >= 0x80 && Character.toLowerCase(c) < 0x80)) {
+                        // trim(), '.' or toLowerCase() treat these specially
+                        simple = false;
+                    } else if (!isWordChar(c) && c != '\'') {
+                        valid = false;
+                    }
+                    i++;
+                }
+                if (simple) {
+                    content = true;
+                    String word = valid ? lowerCase(tweet.substring(start, i)) : null;
+                    if (word != null) {
+                        sentence.add(word);
+                    } else {
+                        dropped++;
+                    }
+                } else {
+                    String token = tweet.substring(start, i);
+                    content |= !token.trim().isEmpty();
+                    String word = TweetParser.cleanWord(token);
+                    if (word != null) {
+                        sentence.add(word);
+                    } else if (!token.trim().isEmpty()) {
+                        dropped++;
+                    }
+                }
+            }
+        }
+        if (content) {
+            sentences.add(sentence);
+        }
+        if (dropped > 0 && Metrics.enabled()) {
+            Metrics.DROPPED_WORDS.add(dropped);
+        }
+        return sentences;
+    }
+
+    /**
+     * Lowercases a word of [a-zA-Z0-9_'] the way cleanWord would, including
+     * rejecting it if the default locale maps a letter outside ASCII.
+     */
+    private static String lowerCase(String word) {
+        String lower = word.toLowerCase();
+        for (int i = 0; i < lower.length(); i++) {
+            if (lower.charAt(i) >= 0x80) {
+                return null;
+            }
+        }
+        return lower;
+    }
+
+    /** The characters matched by \s in a Java regular expression. */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /** The characters matched by \w in a Java regular expression. */
+    private static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')
+                || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    private static boolean isPunctuation(char c) {
+        return c == '.' || c == '?' || c == '!' || c == ';';
+    }
+
+    private static boolean isUnicodeLineTerminator(char c) {
+        return c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+}
@@ -0,0 +1,91 @@
+package org.cis1200;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/** Tests for TweetScanner */
+public class TweetScannerTest {
+
+    // The regular expression pipeline that TweetScanner must agree with
+    private static List<List<String>> withRegexes(String tweet) {
+        List<List<String>> result = new ArrayList<>();
+        for (String sentence : TweetParser.tweetSplit(TweetParser.removeURLs(tweet))) {
+            result.add(TweetParser.parseAndCleanSentence(sentence));
+        }
+        return result;
+    }
+
+    private static void assertSameAsRegexes(String tweet) {
+        List<List<String>> scanned = TweetScanner.scan(tweet);
+        if (scanned != null) {
+            assertEquals(withRegexes(tweet), scanned, tweet);
+        }
+    }
+
+    @Test
+    public void testSimpleTweet() {
+        List<List<String>> scanned = TweetScanner.scan("A banana? A banana!");
+        assertEquals("[[a, banana], [a, banana]]", scanned.toString());
+    }
+
+    @Test
+    public void testURLs() {
+        assertSameAsRegexes("abc http://www.cis.upenn.edu. def.");
+        assertSameAsRegexes("abc http://www.cis.upenn.edu.");
+        assertSameAsRegexes("http:// abc http:ala34?#? def");
+        assertSameAsRegexes("abchttp://x y");
+        assertSameAsRegexes("(http://x.y) z. @http://a. b");
+        assertSameAsRegexes("don'thttp://x. y");
+        assertSameAsRegexes("HTTP://not.a.url ok");
+    }
+
+    @Test
+    public void testBadWordsAndEmptySentences() {
+        assertSameAsRegexes("@user. hi #tag; .. ;  . x_y it's");
+        assertSameAsRegexes("   ");
+        assertSameAsRegexes("");
+        assertSameAsRegexes("We\u2019re back\u0001 \u0001. \u212aelvin caf\u00e9");
+        assertEquals("[[], [hi]]", TweetScanner.scan("@user. hi").toString());
+    }
+
+    @Test
+    public void testAmbiguousTweetsAreDeclined() {
+        assertNull(TweetScanner.scan("caf\u00e9http://x"));
+        assertNull(TweetScanner.scan("see http://x.\u2028"));
+    }
+
+    @Test
+    public void testBundledCorpora() {
+        String[] files = {
+            "./files/noaa_tweets.csv", "./files/dog_feelings_tweets.csv",
+            "./files/big_ben_clock_tweets.csv", "./files/captain_markov_tweets.csv"
+        };
+        for (String file : files) {
+            TweetParser.streamTweets(FileLineIterator.fileToReader(file), 2)
+                    .forEach(TweetScannerTest::assertSameAsRegexes);
+        }
+    }
+
+    @Test
+    public void testRandomTweets() {
+        String[] pieces = {
+            "a", "B", "I", "0", "_", "'", " ", "\t", "\n", "\r", ".", "?", "!", ";",
+            ",", "@", "#", ":", "/", "\u0001", "\u00e9", "\u212a", "\u0085", "http",
+            "https://t.co/x", "http.", "h"
+        };
+        Random random = new Random(1200);
+        for (int i = 0; i < 100000; i++) {
+            StringBuilder tweet = new StringBuilder();
+            int length = random.nextInt(16);
+            for (int j = 0; j < length; j++) {
+                tweet.append(pieces[random.nextInt(pieces.length)]);
+            }
+            assertSameAsRegexes(tweet.toString());
+        }
+    }
+}
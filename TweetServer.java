@@ -0,0 +1,298 @@
+package org.cis1200;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A TweetServer serves tweets generated from one trained MarkovModel over HTTP,
+ * using the JDK's built-in HTTP server. The model is loaded once and shared by
+ * every request (see {@link MarkovModel}), so requests never wait on each other.
+ * <p>
+ * Endpoints (all GET, all answering with UTF-8 plain text):
+ * <p>
+ * - /tweet?chars=280&amp;seed=42 - one tweet of at most chars characters
+ * (default 280). The tweet is the first one of the batch /tweets would return
+ * for the same seed. Without a seed a random one is used; either way the seed
+ * is returned in the X-Seed header so the tweet can be reproduced. With
+ * keyword=dog the tweet is sure to contain that word (see
+ * {@link TwitterBot#generateTweetWithKeyword(MarkovModel, NumberGenerator, String, int)});
+ * a word the model has never seen gets 400.
+ * <p>
+ * - /tweets?n=100&amp;chars=280&amp;seed=42 - n tweets (default 10, at most
+ * MAX_BATCH, and at most MAX_BATCH_CHARS characters between them), one per
+ * line, the same as
+ * {@link TwitterBot#generateTweets(MarkovModel, int, int, long)} returns.
+ * Each tweet is written to the response as soon as it is generated, on the
+ * request's own thread.
+ * <p>
+ * - /stats - the number of tweet requests served and their p50, p99 and
+ * maximum latency in microseconds, one "name value" pair per line.
+ * <p>
+ * Bad parameters get 400, other methods 405 and other paths 404. A request
+ * that fails in any other way gets 500.
+ * <p>
+ * Requests are handled on the executor passed to the constructor. On JDK 21
+ * and later, Executors.newVirtualThreadPerTaskExecutor() gives each request
+ * its own virtual thread; the default is a fixed pool of platform threads.
+ */
+public class TweetServer {
+    /** the port main() listens on */
+    static final int PORT = 8080;
+    /** the most characters a tweet may be asked for */
+    static final int MAX_CHARS = 1_000;
+    /** the most tweets one /tweets request may ask for */
+    static final int MAX_BATCH = 10_000;
+    /** the most characters n * chars may come to in one /tweets request */
+    static final int MAX_BATCH_CHARS = 1 << 20;
+
+    private final MarkovModel model;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final LatencyHistogram latencies = new LatencyHistogram();
+
+    /**
+     * Creates a server on the given address, with a fixed pool of platform
+     * threads. The server does not accept requests until {@link #start()}.
+     *
+     * @param model   - the (non-null) model to generate tweets from
+     * @param address - the address to listen on; port 0 picks a free port
+     * @throws IOException if the address cannot be bound
+     */
+    public TweetServer(MarkovModel model, InetSocketAddress address) throws IOException {
+        this(model, address, Executors.newFixedThreadPool(
+                Runtime.getRuntime().availableProcessors() * 8
+        ));
+    }
+
+    /**
+     * Creates a server on the given address, handling requests on executor.
+     * The server does not accept requests until {@link #start()}, and shuts
+     * the executor down when it is stopped.
+     *
+     * @param model    - the (non-null) model to generate tweets from
+     * @param address  - the address to listen on; port 0 picks a free port
+     * @param executor - the (non-null) executor that runs request handlers
+     * @throws IOException if the address cannot be bound
+     */
+    public TweetServer(
+            MarkovModel model, InetSocketAddress address, ExecutorService executor
+    ) throws IOException {
+        if (model == null || address == null || executor == null) {
+            throw new IllegalArgumentException();
+        }
+        this.model = model;
+        Metrics.watch(model);
+        this.executor = executor;
+        this.server = HttpServer.create(address, 0);
+        server.setExecutor(executor);
+        server.createContext("/tweet", timed(this::tweet));
+        server.createContext("/tweets", timed(this::tweets));
+        server.createContext("/stats", this::stats);
+        server.createContext("/", exchange -> respond(exchange, 404, "not found\n"));
+    }
+
+    /** Starts accepting requests. */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests, waits up to delay seconds for the ones being
+     * handled, and shuts down the executor. If Metrics still reports on this
+     * server's model it stops, so the model is not kept alive.
+     *
+     * @param delay - the most seconds to wait for requests to finish
+     */
+    public void stop(int delay) {
+        server.stop(delay);
+        executor.shutdown();
+        Metrics.unwatch(model);
+    }
+
+    /**
+     * @return the port the server listens on
+     */
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * @return the latencies of the tweet requests served so far
+     */
+    LatencyHistogram latencies() {
+        return latencies;
+    }
+
+    private void tweet(HttpExchange exchange, Map<String, String> query) throws IOException {
+        int chars = intParameter(query, "chars", 280, 0, MAX_CHARS);
+        long seed = seed(query);
+        String keyword = query.get("keyword");
+        String tweet = keyword == null
+                ? TwitterBot.generateTweetChars(
+                        model, TwitterBot.tweetGenerators(seed, 1).get(0), chars
+                )
+                : TwitterBot.generateTweetWithKeyword(
+                        model, new SplittableNumberGenerator(seed), keyword, chars
+                );
+        exchange.getResponseHeaders().set("X-Seed", Long.toString(seed));
+        respond(exchange, 200, tweet + "\n");
+    }
+
+    private void tweets(HttpExchange exchange, Map<String, String> query) throws IOException {
+        int n = intParameter(query, "n", 10, 0, MAX_BATCH);
+        int chars = intParameter(query, "chars", 280, 0, MAX_CHARS);
+        if ((long) n * chars > MAX_BATCH_CHARS) {
+            throw new IllegalArgumentException(
+                    "n * chars must be at most " + MAX_BATCH_CHARS
+            );
+        }
+        long seed = seed(query);
+        exchange.getResponseHeaders().set("X-Seed", Long.toString(seed));
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        // 0 sends the body in chunks, so it is never built in memory
+        exchange.sendResponseHeaders(200, 0);
+        try (Writer out = new OutputStreamWriter(
+                exchange.getResponseBody(), StandardCharsets.UTF_8
+        )) {
+            for (NumberGenerator ng : TwitterBot.tweetGenerators(seed, n)) {
+                out.write(TwitterBot.generateTweetChars(model, ng, chars));
+                out.write('\n');
+            }
+        }
+    }
+
+    private void stats(HttpExchange exchange) throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            respond(exchange, 405, "method not allowed\n");
+            return;
+        }
+        String body = "requests " + latencies.count() + "\n"
+                + "p50_us " + latencies.percentile(50) + "\n"
+                + "p99_us " + latencies.percentile(99) + "\n"
+                + "max_us " + latencies.max() + "\n";
+        respond(exchange, 200, body);
+    }
+
+    /** A handler for one endpoint, given its parsed query parameters. */
+    private interface Endpoint {
+        void handle(HttpExchange exchange, Map<String, String> query) throws IOException;
+    }
+
+    /**
+     * Wraps an endpoint with method and path checks, turns bad parameters into
+     * 400 responses and other failures into 500 responses, and records the
+     * latency of successful requests.
+     */
+    private HttpHandler timed(Endpoint endpoint) {
+        return exchange -> {
+            long start = System.nanoTime();
+            try {
+                if (!exchange.getRequestURI().getPath().equals(
+                        exchange.getHttpContext().getPath()
+                )) {
+                    respond(exchange, 404, "not found\n");
+                } else if (!"GET".equals(exchange.getRequestMethod())) {
+                    respond(exchange, 405, "method not allowed\n");
+                } else {
+                    endpoint.handle(exchange, query(exchange.getRequestURI().getRawQuery()));
+                    latencies.record(System.nanoTime() - start);
+                }
+            } catch (IllegalArgumentException e) {
+                respond(exchange, 400, e.getMessage() + "\n");
+            } catch (RuntimeException e) {
+                if (exchange.getResponseCode() == -1) {
+                    respond(exchange, 500, "internal error\n");
+                } else {
+                    // part of the body is already sent; cut the response short
+                    exchange.close();
+                }
+            }
+        };
+    }
+
+    private static Map<String, String> query(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            query.put(
+                    URLDecoder.decode(name, StandardCharsets.UTF_8),
+                    URLDecoder.decode(value, StandardCharsets.UTF_8)
+            );
+        }
+        return query;
+    }
+
+    private static int intParameter(
+            Map<String, String> query, String name, int fallback, int min, int max
+    ) {
+        String value = query.get(name);
+        if (value == null) {
+            return fallback;
+        }
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed >= min && parsed <= max) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException(
+                name + " must be an integer from " + min + " to " + max
+        );
+    }
+
+    private static long seed(Map<String, String> query) {
+        String value = query.get("seed");
+        if (value == null) {
+            return ThreadLocalRandom.current().nextLong();
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("seed must be an integer");
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body)
+            throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Serves tweets on PORT until the process is stopped, from the model that
+     * TwitterBot.main would use. Metrics are published over JMX; run with
+     * -Dtwitterbot.metrics=true to collect them.
+     */
+    public static void main(String[] args) throws IOException {
+        Metrics.register();
+        MarkovChain mc = TwitterBot.loadOrTrain(new SplittableNumberGenerator());
+        TweetServer server = new TweetServer(mc.toModel(), new InetSocketAddress(PORT));
+        server.start();
+        System.out.println("Serving tweets on http://localhost:" + server.port() + "/tweet");
+    }
+}
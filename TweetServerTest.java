@@ -0,0 +1,154 @@
+package org.cis1200;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/** Tests for TweetServer, run against a server on localhost */
+public class TweetServerTest {
+    private static final HttpClient CLIENT = HttpClient.newHttpClient();
+
+    // A helper function that starts a server on a free localhost port
+    private static TweetServer startServer() throws IOException {
+        MarkovChain mc = new TwitterBot(
+                FileLineIterator.fileToReader("./files/dog_feelings_tweets.csv"), 2
+        ).mc;
+        TweetServer server = new TweetServer(
+                mc.toModel(), new InetSocketAddress(InetAddress.getLoopbackAddress(), 0)
+        );
+        server.start();
+        return server;
+    }
+
+    // A helper function that sends a request and returns the response
+    private static HttpResponse<String> send(TweetServer server, String method, String path)
+            throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(
+                URI.create("http://localhost:" + server.port() + path)
+        ).method(method, HttpRequest.BodyPublishers.noBody()).build();
+        return CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    public void testTweetIsReproducible() throws Exception {
+        TweetServer server = startServer();
+        try {
+            HttpResponse<String> first = send(server, "GET", "/tweet?chars=140&seed=42");
+            HttpResponse<String> second = send(server, "GET", "/tweet?chars=140&seed=42");
+            assertEquals(200, first.statusCode());
+            assertEquals(first.body(), second.body());
+            assertTrue(first.body().length() <= 141);
+            assertEquals("42", first.headers().firstValue("X-Seed").orElse(null));
+
+            HttpResponse<String> batch = send(server, "GET", "/tweets?n=5&chars=140&seed=42");
+            assertEquals(200, batch.statusCode());
+            List<String> tweets = Arrays.asList(batch.body().split("\n"));
+            assertEquals(5, tweets.size());
+            assertEquals(first.body().trim(), tweets.get(0));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testRandomSeedIsReported() throws Exception {
+        TweetServer server = startServer();
+        try {
+            HttpResponse<String> random = send(server, "GET", "/tweet");
+            String seed = random.headers().firstValue("X-Seed").orElseThrow();
+            assertEquals(random.body(), send(server, "GET", "/tweet?seed=" + seed).body());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testKeyword() throws Exception {
+        TweetServer server = startServer();
+        try {
+            HttpResponse<String> first = send(server, "GET", "/tweet?keyword=dog&seed=7");
+            HttpResponse<String> second = send(server, "GET", "/tweet?keyword=dog&seed=7");
+            assertEquals(200, first.statusCode());
+            assertEquals(first.body(), second.body());
+            assertTrue(Arrays.asList(first.body().split("[ .?!;\n]+")).contains("dog"));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testStopReleasesWatchedModel() throws Exception {
+        MarkovChain first = new MarkovChain();
+        first.train(Arrays.asList("a", "dog").iterator());
+        MarkovChain second = new MarkovChain();
+        second.train(Arrays.asList("a", "good", "dog").iterator());
+        InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+        TweetServer older = new TweetServer(first.toModel(), address);
+        TweetServer newer = new TweetServer(second.toModel(), address);
+        older.start();
+        newer.start();
+        older.stop(0);
+        assertTrue(Metrics.dump().contains("model_words 4\n"));
+        newer.stop(0);
+        assertTrue(Metrics.dump().contains("model_words 0\n"));
+    }
+
+    @Test
+    public void testErrors() throws Exception {
+        TweetServer server = startServer();
+        try {
+            assertEquals(400, send(server, "GET", "/tweet?chars=-1").statusCode());
+            assertEquals(400, send(server, "GET", "/tweet?seed=abc").statusCode());
+            assertEquals(400, send(server, "GET", "/tweets?n=1000000").statusCode());
+            assertEquals(400, send(server, "GET", "/tweet?chars=100000").statusCode());
+            // each limit alone is met, but not the total
+            assertEquals(400, send(server, "GET", "/tweets?n=10000&chars=1000").statusCode());
+            assertEquals(200, send(server, "GET", "/tweets?n=1000&chars=1000").statusCode());
+            assertEquals(400, send(server, "GET", "/tweet?keyword=zzzzzz").statusCode());
+            assertEquals(405, send(server, "POST", "/tweet").statusCode());
+            assertEquals(404, send(server, "GET", "/tweetz").statusCode());
+            assertEquals(404, send(server, "GET", "/").statusCode());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testConcurrentRequestsAndStats() throws Exception {
+        TweetServer server = startServer();
+        ExecutorService clients = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<HttpResponse<String>>> responses = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                String path = "/tweet?seed=" + (i % 10);
+                responses.add(clients.submit(() -> send(server, "GET", path)));
+            }
+            for (int i = 0; i < responses.size(); i++) {
+                HttpResponse<String> response = responses.get(i).get();
+                assertEquals(200, response.statusCode());
+                assertEquals(responses.get(i % 10).get().body(), response.body());
+            }
+
+            String stats = send(server, "GET", "/stats").body();
+            assertTrue(stats.contains("requests 200\n"), stats);
+            assertTrue(stats.contains("p99_us "), stats);
+        } finally {
+            clients.shutdown();
+            server.stop(0);
+        }
+    }
+}
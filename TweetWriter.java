@@ -0,0 +1,324 @@
+package org.cis1200;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A TweetWriter streams tweets to a file as they are generated, one per line,
+ * so that writing millions of tweets never needs them all in memory.
+ * <p>
+ * {@link #write(String)} only hands a tweet to a bounded queue; a background
+ * thread takes tweets off the queue in batches, encodes them into a reusable
+ * buffer and writes the buffer to a FileChannel. Generating and writing
+ * therefore overlap, and a writer that falls behind makes write() wait rather
+ * than letting the queue grow.
+ * <p>
+ * Tweets are written as plain lines or as JSON lines ({"tweet":"..."}), and
+ * the file can be gzip-compressed. Appending to a gzip file adds a new gzip
+ * member, which gzip readers treat as a continuation of the same stream.
+ * <p>
+ * If the file cannot be written, the next call to write() or close() throws an
+ * IOException with the cause; tweets queued after the failure are discarded.
+ * Tweets are only certain to be in the file once close() returns normally.
+ */
+public class TweetWriter implements Closeable {
+    /** How each tweet is written. */
+    public enum Format {
+        /** the tweet text, one per line */
+        LINES,
+        /**
+         * each string exactly as given, followed by a line break, so a string
+         * with line breaks in it takes several lines
+         */
+        TEXT,
+        /** a JSON object per line, with the tweet text under "tweet" */
+        JSON_LINES
+    }
+
+    /** default number of tweets that may wait to be written */
+    static final int DEFAULT_CAPACITY = 4096;
+    /** size of the buffer the background thread encodes tweets into */
+    private static final int BUFFER_SIZE = 1 << 16;
+    /** queued after the last tweet to stop the background thread */
+    private static final String END = new String("end of tweets");
+
+    private final Format format;
+    private final FileChannel file;
+    private final WritableByteChannel out;
+    private final BlockingQueue<String> queue;
+    private final Thread writer;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    private volatile IOException failure;
+    private volatile long written;
+    private boolean closed;
+
+    /**
+     * Opens a file for writing plain, uncompressed lines.
+     *
+     * @param filePath - the path of the file to write the tweets to
+     * @param append   - whether to add to the end of an existing file rather
+     *                 than overwrite it
+     * @throws IOException if the file cannot be opened
+     */
+    public TweetWriter(String filePath, boolean append) throws IOException {
+        this(filePath, append, Format.LINES, false, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Opens a file for writing tweets.
+     *
+     * @param filePath - the path of the file to write the tweets to
+     * @param append   - whether to add to the end of an existing file rather
+     *                 than overwrite it
+     * @param format   - how each tweet is written
+     * @param gzip     - whether to compress the file with gzip
+     * @param capacity - the number of tweets that may wait to be written
+     *                 before write() blocks
+     * @throws IOException              if the file cannot be opened
+     * @throws IllegalArgumentException if filePath or format is null, or
+     *                                  capacity is not positive
+     */
+    public TweetWriter(
+            String filePath, boolean append, Format format, boolean gzip, int capacity
+    ) throws IOException {
+        if (filePath == null || format == null || capacity < 1) {
+            throw new IllegalArgumentException();
+        }
+        this.format = format;
+        this.file = FileChannel.open(
+                Path.of(filePath), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING
+        );
+        WritableByteChannel channel = file;
+        if (gzip) {
+            try {
+                channel = Channels.newChannel(
+                        new GZIPOutputStream(Channels.newOutputStream(file), BUFFER_SIZE)
+                );
+            } catch (IOException e) {
+                file.close();
+                throw e;
+            }
+        }
+        this.out = channel;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.writer = new Thread(this::drain, "tweet-writer " + filePath);
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queues a tweet to be written, waiting while the queue is full.
+     *
+     * @param tweet - the (non-null) tweet to write; line breaks in it are
+     *              written as spaces in LINES format, and as they are in TEXT
+     *              format
+     * @throws IOException              if an earlier tweet could not be
+     *                                  written, or the thread is interrupted
+     *                                  while waiting
+     * @throws IllegalStateException    if the writer has been closed
+     * @throws IllegalArgumentException if tweet is null
+     */
+    public void write(String tweet) throws IOException {
+        if (tweet == null) {
+            throw new IllegalArgumentException();
+        }
+        if (closed) {
+            throw new IllegalStateException("TweetWriter is closed");
+        }
+        checkFailure();
+        try {
+            queue.put(tweet);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while queueing a tweet");
+        }
+    }
+
+    /**
+     * @return the number of tweets written to the file so far (some may still
+     *         be buffered)
+     */
+    public long written() {
+        return written;
+    }
+
+    /**
+     * Waits for every queued tweet to be written, then closes the file.
+     * Closing a TweetWriter again has no effect.
+     *
+     * @throws IOException if any tweet could not be written, or the file
+     *                     cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        boolean interrupted = false;
+        while (true) {
+            try {
+                queue.put(END);
+                writer.join();
+                break;
+            } catch (InterruptedException e) {
+                // the file must not be closed under the background thread
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            if (failure == null) {
+                failure = e;
+            }
+        } finally {
+            file.close();
+        }
+        checkFailure();
+    }
+
+    private void checkFailure() throws IOException {
+        IOException e = failure;
+        if (e != null) {
+            throw new IOException("could not write tweets: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * The background thread: writes tweets in batches until END, and after a
+     * failure keeps emptying the queue so writers are never stuck. The buffer
+     * only goes to the file when it is full and at the end.
+     */
+    private void drain() {
+        List<String> batch = new ArrayList<>();
+        StringBuilder line = new StringBuilder();
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                // only close() stops the thread, by queueing END
+                continue;
+            }
+            queue.drainTo(batch);
+            for (String tweet : batch) {
+                if (tweet == END) {
+                    if (failure == null) {
+                        try {
+                            flush();
+                        } catch (IOException e) {
+                            failure = e;
+                        }
+                    }
+                    return;
+                }
+                if (failure != null) {
+                    continue;
+                }
+                try {
+                    line.setLength(0);
+                    encode(tweet, line);
+                    put(line.toString().getBytes(StandardCharsets.UTF_8));
+                    written++;
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+            batch.clear();
+        }
+    }
+
+    private void put(byte[] bytes) throws IOException {
+        if (bytes.length > buffer.remaining()) {
+            flush();
+        }
+        if (bytes.length > buffer.capacity()) {
+            writeFully(ByteBuffer.wrap(bytes));
+        } else {
+            buffer.put(bytes);
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        writeFully(buffer);
+        buffer.clear();
+    }
+
+    private void writeFully(ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            out.write(bytes);
+        }
+    }
+
+    /** Appends the line for a tweet, including its line break, to line. */
+    private void encode(String tweet, StringBuilder line) {
+        if (format == Format.TEXT) {
+            line.append(tweet);
+        } else if (format == Format.LINES) {
+            for (int i = 0; i < tweet.length(); i++) {
+                char c = tweet.charAt(i);
+                line.append(c == '\n' || c == '\r' ? ' ' : c);
+            }
+        } else {
+            line.append("{\"tweet\":\"");
+            escapeJson(tweet, line);
+            line.append("\"}");
+        }
+        line.append('\n');
+    }
+
+    /**
+     * Appends a string to a JSON string literal, escaping quotes, backslashes
+     * and control characters.
+     *
+     * @param s   - the string to escape
+     * @param out - where to append the escaped string
+     */
+    static void escapeJson(String s, StringBuilder out) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+    }
+}
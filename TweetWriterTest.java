@@ -0,0 +1,168 @@
+package org.cis1200;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+/** Tests for TweetWriter */
+public class TweetWriterTest {
+
+    // A helper function that reads the lines of a possibly gzipped file
+    private static List<String> lines(Path path, boolean gzip) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(
+                gzip ? new GZIPInputStream(Files.newInputStream(path))
+                        : Files.newInputStream(path),
+                StandardCharsets.UTF_8
+        ))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    @Test
+    public void testWritesLinesInOrder() throws IOException {
+        Path path = Files.createTempDirectory("tweets").resolve("tweets.txt");
+        List<String> expected = new ArrayList<>();
+        // a small queue, so write() has to wait for the background thread
+        try (TweetWriter out = new TweetWriter(
+                path.toString(), false, TweetWriter.Format.LINES, false, 8
+        )) {
+            for (int i = 0; i < 20_000; i++) {
+                String tweet = "tweet number " + i + " caf\u00e9.";
+                expected.add(tweet);
+                out.write(tweet);
+            }
+        }
+        assertEquals(expected, lines(path, false));
+    }
+
+    @Test
+    public void testLineBreaksInTweetsBecomeSpaces() throws IOException {
+        Path path = Files.createTempDirectory("tweets").resolve("tweets.txt");
+        try (TweetWriter out = new TweetWriter(path.toString(), false)) {
+            out.write("two\nlines\r!");
+        }
+        assertEquals(Arrays.asList("two lines !"), lines(path, false));
+    }
+
+    @Test
+    public void testWriteStringsToFileKeepsLineBreaks() throws IOException {
+        Path path = Files.createTempDirectory("tweets").resolve("strings.txt");
+        TwitterBot bot = new TwitterBot(
+                new BufferedReader(new StringReader("0, 1, woof.")), 2
+        );
+        bot.writeStringsToFile(Arrays.asList("two\nlines", "one"), path.toString(), false);
+        assertEquals(Arrays.asList("two", "lines", "one"), lines(path, false));
+    }
+
+    @Test
+    public void testAppend() throws IOException {
+        Path path = Files.createTempDirectory("tweets").resolve("tweets.txt");
+        try (TweetWriter out = new TweetWriter(path.toString(), false)) {
+            out.write("first.");
+        }
+        try (TweetWriter out = new TweetWriter(path.toString(), true)) {
+            out.write("second.");
+        }
+        assertEquals(Arrays.asList("first.", "second."), lines(path, false));
+        try (TweetWriter out = new TweetWriter(path.toString(), false)) {
+            out.write("third.");
+        }
+        assertEquals(Arrays.asList("third."), lines(path, false));
+    }
+
+    @Test
+    public void testGzipJsonLines() throws IOException {
+        Path path = Files.createTempDirectory("tweets").resolve("tweets.jsonl.gz");
+        for (boolean append : new boolean[] { false, true }) {
+            try (TweetWriter out = new TweetWriter(
+                    path.toString(), append, TweetWriter.Format.JSON_LINES, true, 16
+            )) {
+                out.write("say \"woof\" \\ now\n\u0001\tcaf\u00e9");
+            }
+        }
+        String line = "{\"tweet\":\"say \\\"woof\\\" \\\\ now\\n\\u0001\\tcaf\u00e9\"}";
+        assertEquals(Arrays.asList(line, line), lines(path, true));
+    }
+
+    @Test
+    public void testWrittenCount() throws IOException {
+        Path path = Files.createTempDirectory("tweets").resolve("tweets.txt");
+        TweetWriter out = new TweetWriter(path.toString(), false);
+        for (int i = 0; i < 100; i++) {
+            out.write("woof.");
+        }
+        out.close();
+        assertEquals(100, out.written());
+        out.close();
+        assertThrows(IllegalStateException.class, () -> out.write("woof."));
+    }
+
+    @Test
+    public void testInvalidArguments() throws IOException {
+        Path dir = Files.createTempDirectory("tweets");
+        assertThrows(IOException.class, () -> new TweetWriter(dir.toString(), false));
+        assertThrows(IllegalArgumentException.class, () -> new TweetWriter(null, false));
+        assertThrows(IllegalArgumentException.class, () -> new TweetWriter(
+                dir.resolve("a.txt").toString(), false, TweetWriter.Format.LINES, false, 0
+        ));
+        try (TweetWriter out = new TweetWriter(dir.resolve("b.txt").toString(), false)) {
+            assertThrows(IllegalArgumentException.class, () -> out.write(null));
+        }
+    }
+
+    @Test
+    public void testWriteFailureIsReported() throws IOException {
+        Path full = Path.of("/dev/full");
+        if (!Files.isWritable(full)) {
+            return; // only Linux has a device that is always out of space
+        }
+        TweetWriter out = new TweetWriter(
+                full.toString(), false, TweetWriter.Format.LINES, false, 4
+        );
+        IOException thrown = assertThrows(IOException.class, () -> {
+            // enough tweets to fill the buffer, so a write reaches the device
+            for (int i = 0; i < 100_000; i++) {
+                out.write("a tweet that will never reach the disk.");
+            }
+            out.close();
+        });
+        assertTrue(thrown.getCause() instanceof IOException);
+        assertThrows(IOException.class, out::close);
+    }
+
+    @Test
+    public void testTwitterBotStreamsTweets() throws IOException {
+        Path path = Files.createTempDirectory("tweets").resolve("tweets.txt");
+        Random random = new Random(1200);
+        TwitterBot bot = new TwitterBot(
+                FileLineIterator.fileToReader("./files/dog_feelings_tweets.csv"), 2,
+                random::nextInt
+        );
+        bot.writeTweetsToFile(500, 280, path.toString(), false);
+        List<String> tweets = lines(path, false);
+        assertEquals(500, tweets.size());
+        for (String tweet : tweets) {
+            assertTrue(tweet.length() <= 280);
+            assertTrue(TwitterBot.isPunctuated(tweet));
+        }
+    }
+}
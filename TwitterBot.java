@@ -1,15 +1,15 @@
 package org.cis1200;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.io.BufferedReader;
-import java.util.Iterator;
 import java.io.IOException;
-import java.io.FileWriter;
+import java.io.UncheckedIOException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * When run as an application, this
@@ -31,6 +31,10 @@ public class TwitterBot {
     static final int TWEET_COLUMN = 2;
     /** File to store generated tweets */
     static final String PATH_TO_OUTPUT_TWEETS = "files/generated_tweets.txt";
+    /** File to cache the trained MarkovChain in (see ModelSnapshot) */
+    static final String PATH_TO_SNAPSHOT = "files/dog_feelings_tweets.model";
+    /** most chars a tweet's StringBuilder starts with; longer tweets grow it */
+    private static final int TWEET_CAPACITY = 320;
 
     /** The MarkovChain to generate tweets */
     MarkovChain mc;
@@ -40,14 +44,14 @@ public class TwitterBot {
     /**
      * Given a column and a buffered reader, initializes the TwitterBot by
      * training the MarkovChain with sentences sourced from the reader. Uses
-     * the RandomNumberGenerator().
+     * a new SplittableNumberGenerator().
      *
      * @param br          - a buffered reader containing tweet data
      * @param tweetColumn - the column in the reader where the text of the tweet
      *                    itself is stored
      */
     public TwitterBot(BufferedReader br, int tweetColumn) {
-        this(br, tweetColumn, new RandomNumberGenerator());
+        this(br, tweetColumn, new SplittableNumberGenerator());
     }
 
     /**
@@ -62,19 +66,98 @@ public class TwitterBot {
      *                    passed to MarkovChain
      */
     public TwitterBot(BufferedReader br, int tweetColumn, NumberGenerator ng) {
+        this(br, tweetColumn, ng, false);
+    }
+
+    /**
+     * Given a column and a buffered reader, initializes the TwitterBot by
+     * training the MarkovChain with all the sentences obtained as training data
+     * from the buffered reader, optionally cleaning and counting the tweets on
+     * all available cores. Parallel training gives exactly the same
+     * MarkovChain as sequential training.
+     *
+     * @param br          - a buffered reader containing tweet data
+     * @param tweetColumn - the column in the buffered reader where the text
+     *                    of the tweet itself is stored
+     * @param ng          - A NumberGenerator for the ng field, also to be
+     *                    passed to MarkovChain
+     * @param parallel    - whether to train in parallel
+     */
+    public TwitterBot(
+            BufferedReader br, int tweetColumn, NumberGenerator ng,
+            boolean parallel
+    ) {
         mc = new MarkovChain(ng);
         this.ng = ng;
         // Complete this method.
-        List<List<String>> sentencesList = TweetParser.csvDataToTrainingData(br, tweetColumn);
-        for (int i = 0; i < sentencesList.size(); i++) {
-            Iterator<String> iter = sentencesList.get(i).iterator();
-            mc.train(iter);
+        Stream<List<String>> sentences = TweetParser.streamTrainingData(br, tweetColumn);
+        mc.train(parallel ? sentences.parallel() : sentences);
+    }
+
+    /**
+     * Given a column and a buffered reader, initializes the TwitterBot by
+     * training the MarkovChain as above, while also adding every training
+     * sentence to an NgramIndex for use with generateOriginalTweetChars().
+     *
+     * @param br          - a buffered reader containing tweet data
+     * @param tweetColumn - the column in the buffered reader where the text
+     *                    of the tweet itself is stored
+     * @param ng          - A NumberGenerator for the ng field, also to be
+     *                    passed to MarkovChain
+     * @param index       - the (non-null) NgramIndex to add the sentences to
+     */
+    public TwitterBot(
+            BufferedReader br, int tweetColumn, NumberGenerator ng, NgramIndex index
+    ) {
+        if (index == null) {
+            throw new IllegalArgumentException();
+        }
+        mc = new MarkovChain(ng);
+        this.ng = ng;
+        mc.train(TweetParser.streamTrainingData(br, tweetColumn).peek(index::add));
+    }
+
+    /**
+     * Initializes the TwitterBot by training the MarkovChain with the tweets in
+     * a memory-mapped CSV file, optionally on all available cores.
+     *
+     * @param csv         - a MappedCsvReader for the file of tweets
+     * @param tweetColumn - the column in the file where the text of the tweet
+     *                    itself is stored
+     * @param ng          - A NumberGenerator for the ng field, also to be
+     *                    passed to MarkovChain
+     * @param parallel    - whether to train in parallel
+     */
+    public TwitterBot(
+            MappedCsvReader csv, int tweetColumn, NumberGenerator ng,
+            boolean parallel
+    ) {
+        mc = new MarkovChain(ng);
+        this.ng = ng;
+        Stream<List<String>> sentences = TweetParser.streamTrainingData(csv, tweetColumn);
+        mc.train(parallel ? sentences.parallel() : sentences);
+    }
+
+    /**
+     * Initializes the TwitterBot with an already trained MarkovChain, for
+     * example one loaded with MarkovChain.load().
+     *
+     * @param mc - a (non-null) trained MarkovChain
+     * @param ng - A NumberGenerator for the ng field; it should be the one
+     *           that mc was created with
+     */
+    public TwitterBot(MarkovChain mc, NumberGenerator ng) {
+        if (mc == null || ng == null) {
+            throw new IllegalArgumentException();
         }
+        this.mc = mc;
+        this.ng = ng;
     }
 
     /**
      * Given a List of Strings, prints those Strings to a file (one String per
-     * line in the file). 
+     * line in the file). Each String is written as it is, so one that
+     * contains line breaks takes several lines.
      *
      * @param stringsToWrite - A List of Strings to write to the file
      * @param filePath       - the string containing the path to the file where
@@ -82,30 +165,26 @@ public class TwitterBot {
      * @param append         - a boolean indicating whether the new tweets
      *                       should be appended to the current file or should
      *                       overwrite its previous contents
+     * @throws UncheckedIOException if the file cannot be written
      */
     public void writeStringsToFile(
             List<String> stringsToWrite, String filePath,
             boolean append
     ) {
-        File file = Paths.get(filePath).toFile();
-        BufferedWriter bw;
-        if (file == null) {
-            return;
-        }
-        try {
-            bw = new BufferedWriter(new FileWriter(file, append));
-            for (int i = 0; i < stringsToWrite.size(); i++) {
-                bw.write(stringsToWrite.get(i));
-                bw.newLine();
+        try (TweetWriter out = new TweetWriter(
+                filePath, append, TweetWriter.Format.TEXT, false, TweetWriter.DEFAULT_CAPACITY
+        )) {
+            for (String s : stringsToWrite) {
+                out.write(s);
             }
-            bw.flush();
-            bw.close();
         } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
 
     /**
-     * Generates tweets and writes them to a file.
+     * Generates tweets and writes them to a file. Each tweet is written as
+     * soon as it is generated, so the tweets are never all in memory at once.
      *
      * @param numTweets - the number of tweets that should be written
      * @param numChars  - the number of characters in each tweet
@@ -113,12 +192,33 @@ public class TwitterBot {
      * @param append    - a boolean indicating whether the new tweets should be
      *                  appended to the current file or should overwrite its
      *                  previous contents
+     * @throws UncheckedIOException if the file cannot be written
      */
     public void writeTweetsToFile(
             int numTweets, int numChars, String filePath,
             boolean append
     ) {
-        writeStringsToFile(generateTweets(numTweets, numChars), filePath, append);
+        try (TweetWriter out = new TweetWriter(filePath, append)) {
+            writeTweets(numTweets, numChars, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Generates tweets with generateTweetChars() and streams them to a
+     * TweetWriter, which may compress them or write them as JSON lines.
+     *
+     * @param numTweets - the number of tweets to write
+     * @param numChars  - the number of characters in each tweet
+     * @param out       - the (open) TweetWriter to write the tweets to; it is
+     *                  not closed
+     * @throws IOException if the TweetWriter has failed
+     */
+    public void writeTweets(long numTweets, int numChars, TweetWriter out) throws IOException {
+        for (long i = 0; i < numTweets; i++) {
+            out.write(generateTweetChars(numChars));
+        }
     }
 
     /**
@@ -131,28 +231,48 @@ public class TwitterBot {
      * @throws IllegalArgumentException if numWords is negative
      */
     public String generateTweet(int numWords) {
-        this.mc.reset();
+        return generateTweet(mc.cursor(), ng, numWords);
+    }
+
+    /**
+     * Generates a tweet of a given number of words by walking a cursor, as
+     * described in {@link #generateTweet(int)}.
+     *
+     * @param walk     - the cursor to walk; it is reset first
+     * @param ng       - the NumberGenerator that picks punctuation
+     * @param numWords - The desired number of words of the tweet to be
+     *                 produced
+     * @return a String representing a generated tweet
+     * @throws IllegalArgumentException if numWords is negative
+     */
+    static String generateTweet(SentenceWalk walk, NumberGenerator ng, int numWords) {
+        walk.reset();
         if (numWords < 0) {
             throw new IllegalArgumentException();
         }
-        if (numWords == 0 || !this.mc.hasNext()) {
+        if (numWords == 0 || !walk.hasNext()) {
             return "";
         }
+        boolean timed = Metrics.enabled();
+        long start = timed ? System.nanoTime() : 0;
         int tweetWords = 0;
-        String tweet = "";
+        StringBuilder tweet = new StringBuilder();
         while (tweetWords < numWords) {
             tweetWords++;
-            tweet = tweet + mc.next();
-            if ((!mc.hasNext()) && (tweetWords < numWords)) {
-                tweet = tweet + randomPunctuation();
-                this.mc.reset();
+            tweet.append(walk.next());
+            if ((!walk.hasNext()) && (tweetWords < numWords)) {
+                tweet.append(randomPunctuation(ng));
+                walk.reset();
             }
             if (tweetWords < numWords) {
-                tweet = tweet + " ";
+                tweet.append(' ');
             }
         }
-        tweet = tweet + randomPunctuation();
-        return tweet; // Complete this method.
+        tweet.append(randomPunctuation(ng));
+        if (timed) {
+            Metrics.generated(start);
+        }
+        return tweet.toString();
     }
 
     /**
@@ -173,7 +293,81 @@ public class TwitterBot {
     }
 
     /**
-     * Generates a tweet using generateTweet().
+     * Generates a batch of tweets in parallel, reproducibly: the same seed
+     * always gives the same tweets in the same order, however many threads
+     * do the work. This bot's own NumberGenerators are not used.
+     *
+     * @param numTweets - the number of tweets to generate
+     * @param numChars  - the number of characters that each generated tweet
+     *                  should have
+     * @param seed      - the seed that all the tweets' random choices derive
+     *                  from
+     * @return a List of Strings where each element is a tweet
+     * @throws IllegalArgumentException if numTweets or numChars is negative
+     */
+    public List<String> generateTweets(int numTweets, int numChars, long seed) {
+        return generateTweets(mc.toModel(), numTweets, numChars, seed);
+    }
+
+    /**
+     * Generates a batch of tweets from a MarkovModel on the current fork-join
+     * pool (the common pool, unless called from a task in another pool).
+     * <p>
+     * Tweet i gets its own SplittableNumberGenerator, the i-th split of one
+     * generator seeded with the batch seed, which picks both its words and its
+     * punctuation. Tweets therefore do not depend on each other or on how the
+     * batch is split among threads, and the same seed always gives the same
+     * list.
+     *
+     * @param model     - the model to generate from
+     * @param numTweets - the number of tweets to generate
+     * @param numChars  - the number of characters that each generated tweet
+     *                  should have
+     * @param seed      - the seed that all the tweets' random choices derive
+     *                  from
+     * @return a List of Strings where each element is a tweet
+     * @throws IllegalArgumentException if numTweets or numChars is negative
+     */
+    public static List<String> generateTweets(
+            MarkovModel model, int numTweets, int numChars, long seed
+    ) {
+        if (numTweets < 0 || numChars < 0) {
+            throw new IllegalArgumentException();
+        }
+        List<SplittableNumberGenerator> generators = tweetGenerators(seed, numTweets);
+        return IntStream.range(0, numTweets).parallel()
+                .mapToObj(i -> generateTweetChars(model, generators.get(i), numChars))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Splits one generator per tweet, in index order, from a generator seeded
+     * with the batch seed. Seeding tweet i with seed + i * step instead would
+     * not do: when step is SplittableRandom's own increment, tweet i + 1 draws
+     * tweet i's numbers shifted by one.
+     *
+     * @param seed      - the batch seed
+     * @param numTweets - the number of generators to split
+     * @return the generators of tweets 0 to numTweets - 1
+     */
+    static List<SplittableNumberGenerator> tweetGenerators(long seed, int numTweets) {
+        SplittableNumberGenerator root = new SplittableNumberGenerator(seed);
+        List<SplittableNumberGenerator> generators = new ArrayList<>(numTweets);
+        for (int i = 0; i < numTweets; i++) {
+            generators.add(root.split());
+        }
+        return generators;
+    }
+
+    /**
+     * Generates the longest tweet that fits in numChars characters, in a single
+     * walk through the MarkovChain.
+     * <p>
+     * The result is the tweet that generateTweet(k) would produce from the same
+     * NumberGenerator state, where k is the largest number of words that fits.
+     * Each word is checked against the budget (leaving room for the final
+     * punctuation mark) before it is appended, so no part of the tweet is built
+     * twice.
      *
      * @param numChars - The desired number of characters of the tweet to be
      *                 produced
@@ -181,27 +375,220 @@ public class TwitterBot {
      * @throws IllegalArgumentException if numChars is negative
      */
     public String generateTweetChars(int numChars) {
+        return generateTweetChars(mc.cursor(), ng, numChars);
+    }
+
+    /**
+     * Generates the longest tweet that fits in numChars characters from a
+     * shared MarkovModel. Many threads may call this at once on the same
+     * model, as long as each passes its own NumberGenerator.
+     *
+     * @param model    - the model to generate from
+     * @param ng       - the NumberGenerator that picks both words and
+     *                 punctuation
+     * @param numChars - The desired number of characters of the tweet to be
+     *                 produced
+     * @return a String representing a generated tweet
+     * @throws IllegalArgumentException if numChars is negative
+     */
+    public static String generateTweetChars(MarkovModel model, NumberGenerator ng, int numChars) {
+        return generateTweetChars(model.cursor(ng), ng, numChars);
+    }
+
+    /**
+     * Generates the longest tweet that fits in numChars characters from a
+     * MappedModel. Many threads may call this at once on the same model, as
+     * long as each passes its own NumberGenerator.
+     *
+     * @param model    - the model to generate from
+     * @param ng       - the NumberGenerator that picks both words and
+     *                 punctuation
+     * @param numChars - The desired number of characters of the tweet to be
+     *                 produced
+     * @return a String representing a generated tweet
+     * @throws IllegalArgumentException if numChars is negative
+     */
+    public static String generateTweetChars(MappedModel model, NumberGenerator ng, int numChars) {
+        return generateTweetChars(model.cursor(ng), ng, numChars);
+    }
+
+    /**
+     * Generates the longest tweet that fits in numChars characters by walking
+     * a cursor, as described in {@link #generateTweetChars(int)}.
+     *
+     * @param walk     - the cursor to walk; it is reset first
+     * @param ng       - the NumberGenerator that picks punctuation
+     * @param numChars - The desired number of characters of the tweet to be
+     *                 produced
+     * @return a String representing a generated tweet
+     * @throws IllegalArgumentException if numChars is negative
+     */
+    static String generateTweetChars(SentenceWalk walk, NumberGenerator ng, int numChars) {
         if (numChars < 0) {
             throw new IllegalArgumentException(
                     "tweet length cannot be negative"
             );
         }
 
-        String newTweet = generateTweet(1);
-        if (newTweet == null || newTweet.length() == 0) {
-            return "";
+        boolean timed = Metrics.enabled();
+        long start = timed ? System.nanoTime() : 0;
+        walk.reset();
+        StringBuilder chars = new StringBuilder(Math.min(numChars, TWEET_CAPACITY));
+        String tweet = finishTweet(walk, ng, chars, numChars, false);
+        if (timed) {
+            Metrics.generated(start);
+        }
+        return tweet;
+    }
+
+    /**
+     * Generates a tweet of at most numChars characters that is sure to contain
+     * a keyword, using the instance's MarkovChain and NumberGenerator. See
+     * {@link #generateTweetWithKeyword(MarkovModel, NumberGenerator, String, int)}.
+     * <p>
+     * The chain's model, and the reverse table built for the first keyword
+     * tweet, are kept until the chain is trained further (see
+     * MarkovChain.toModel()), so later calls do not rebuild them.
+     *
+     * @param keyword  - the word the tweet must contain
+     * @param numChars - The desired number of characters of the tweet to be
+     *                 produced
+     * @return a String representing a generated tweet
+     * @throws IllegalArgumentException if the keyword was never trained on or
+     *                                  does not fit in numChars characters
+     */
+    public String generateTweetWithKeyword(String keyword, int numChars) {
+        return generateTweetWithKeyword(mc.toModel(), ng, keyword, numChars);
+    }
+
+    /**
+     * Generates a tweet of at most numChars characters that is sure to contain
+     * a keyword.
+     * <p>
+     * The sentence holding the keyword is built outwards from it: the words
+     * before it by walking the model backwards to a sentence start (see
+     * MarkovModel.walkBack), and the words after it by walking forwards as
+     * usual. Its first words are left out if it would not fit otherwise. The
+     * rest of the tweet is filled with further sentences as in
+     * generateTweetChars(). No tweets are generated and thrown away.
+     *
+     * @param model    - the model to generate from
+     * @param ng       - the NumberGenerator that picks words and punctuation
+     * @param keyword  - the word the tweet must contain; it is cleaned as
+     *                 training words are, so "Dog" finds "dog"
+     * @param numChars - The desired number of characters of the tweet to be
+     *                 produced
+     * @return a String representing a generated tweet
+     * @throws IllegalArgumentException if the keyword was never trained on or
+     *                                  does not fit in numChars characters
+     */
+    public static String generateTweetWithKeyword(
+            MarkovModel model, NumberGenerator ng, String keyword, int numChars
+    ) {
+        String word = keyword == null ? null : TweetParser.cleanWord(keyword);
+        if (word == null || !model.contains(word)) {
+            throw new IllegalArgumentException("keyword not in the model: " + keyword);
+        }
+        if (word.length() + 1 > numChars) {
+            throw new IllegalArgumentException("keyword does not fit in " + numChars + " chars");
         }
+        boolean timed = Metrics.enabled();
+        long start = timed ? System.nanoTime() : 0;
+        // every word takes at least two characters with its separating space
+        List<String> before = model.walkBack(word, numChars / 2, ng);
+        int length = word.length() + 1;
+        for (String w : before) {
+            length += w.length() + 1;
+        }
+        int first = 0;
+        while (length > numChars) {
+            length -= before.get(first++).length() + 1;
+        }
+
+        StringBuilder tweet = new StringBuilder(Math.min(numChars, TWEET_CAPACITY));
+        for (String w : before.subList(first, before.size())) {
+            tweet.append(w).append(' ');
+        }
+        tweet.append(word);
+        ChainCursor walk = model.cursor(ng);
+        walk.reset(word);
+        walk.next();
+        boolean endOfSentence = !walk.hasNext();
+        if (endOfSentence) {
+            tweet.append(randomPunctuation(ng));
+            walk.reset();
+        }
+        String result = finishTweet(walk, ng, tweet, numChars, endOfSentence);
+        if (timed) {
+            Metrics.generated(start);
+        }
+        return result;
+    }
 
-        String tweet = "";
-        int numWords = 1;
-        while (true) {
-            newTweet = generateTweet(numWords);
-            if (newTweet.length() > numChars) {
+    /**
+     * Appends words from a walk to a tweet while they fit in numChars
+     * characters (leaving room for the final punctuation mark), starting a new
+     * sentence whenever one ends, and then punctuates the tweet.
+     *
+     * @param walk          - the cursor to walk on from
+     * @param ng            - the NumberGenerator that picks punctuation
+     * @param tweet         - the tweet so far
+     * @param numChars      - the most characters the tweet may have
+     * @param endOfSentence - whether the tweet so far ends with a punctuated
+     *                      sentence
+     * @return the finished tweet
+     */
+    private static String finishTweet(
+            SentenceWalk walk, NumberGenerator ng, StringBuilder tweet, int numChars,
+            boolean endOfSentence
+    ) {
+        while (walk.hasNext()) {
+            // room for a separating space, the word and the final punctuation
+            int separator = tweet.length() == 0 ? 0 : 1;
+            if (tweet.length() + separator + walk.peek().length() + 1 > numChars) {
+                break;
+            }
+            if (separator > 0) {
+                tweet.append(' ');
+            }
+            tweet.append(walk.next());
+            endOfSentence = !walk.hasNext();
+            if (endOfSentence) {
+                tweet.append(randomPunctuation(ng));
+                walk.reset();
+            }
+        }
+
+        if (tweet.length() > 0 && !endOfSentence) {
+            tweet.append(randomPunctuation(ng));
+        }
+        return tweet.toString();
+    }
+
+    /**
+     * Generates a tweet as generateTweetChars() does, but regenerates it while
+     * it copies index.span() or more consecutive words of a training sentence.
+     *
+     * @param numChars - The desired number of characters of the tweet to be
+     *                 produced
+     * @param index    - an NgramIndex of the training sentences
+     * @param attempts - the most tweets to generate before giving up
+     * @return the first tweet that copies no run of index.span() training
+     *         words, or null if every attempt did
+     * @throws IllegalArgumentException if numChars is negative, index is null
+     *                                  or attempts is less than 1
+     */
+    public String generateOriginalTweetChars(int numChars, NgramIndex index, int attempts) {
+        if (index == null || attempts < 1) {
+            throw new IllegalArgumentException();
+        }
+        for (int i = 0; i < attempts; i++) {
+            String tweet = generateTweetChars(numChars);
+            if (!index.copies(tweet)) {
                 return tweet;
             }
-            tweet = newTweet;
-            numWords++;
         }
+        return null;
     }
 
     /**
@@ -211,6 +598,17 @@ public class TwitterBot {
      *         '.' 70% of the time and ';', '?', and '!' each 10% of the time.
      */
     public String randomPunctuation() {
+        return randomPunctuation(ng);
+    }
+
+    /**
+     * Picks a random punctuation String as described in
+     * {@link #randomPunctuation()}.
+     *
+     * @param ng - the NumberGenerator to pick with
+     * @return a string containing just one punctuation character
+     */
+    static String randomPunctuation(NumberGenerator ng) {
         char[] puncs = { ';', '?', '!' };
         int m = ng.next(10);
         if (m < puncs.length) {
@@ -263,13 +661,63 @@ public class TwitterBot {
         return false;
     }
 
+    /**
+     * Returns the MarkovChain for PATH_TO_TWEETS. It is loaded from
+     * PATH_TO_SNAPSHOT if the snapshot is newer than the tweets; otherwise it
+     * is trained from the tweets and saved to PATH_TO_SNAPSHOT for next time.
+     *
+     * @param ng - A NumberGenerator to be passed to MarkovChain
+     * @return the trained MarkovChain
+     * @throws IOException if the snapshot cannot be read or written
+     */
+    static MarkovChain loadOrTrain(NumberGenerator ng) throws IOException {
+        return loadOrTrain(PATH_TO_TWEETS, TWEET_COLUMN, PATH_TO_SNAPSHOT, ng);
+    }
+
+    /**
+     * Returns the MarkovChain for a CSV file of tweets, loading it from a
+     * snapshot if the snapshot is newer than the tweets, and otherwise
+     * training it and saving the snapshot for next time.
+     *
+     * @param tweetsPath   - the path of the CSV file of tweets
+     * @param tweetColumn  - the column of the file that contains the tweets
+     * @param snapshotPath - the path of the snapshot file
+     * @param ng           - A NumberGenerator to be passed to MarkovChain
+     * @return the trained MarkovChain
+     * @throws IOException if the snapshot cannot be read or written
+     */
+    static MarkovChain loadOrTrain(
+            String tweetsPath, int tweetColumn, String snapshotPath, NumberGenerator ng
+    ) throws IOException {
+        if (isFresh(tweetsPath, snapshotPath)) {
+            // the tweets have not changed since they were last trained on
+            return MarkovChain.load(snapshotPath, ng);
+        }
+        MappedCsvReader csv = new MappedCsvReader(tweetsPath);
+        MarkovChain mc = new TwitterBot(csv, tweetColumn, ng, true).mc;
+        mc.save(snapshotPath);
+        return mc;
+    }
+
+    /**
+     * @param tweetsPath   - the path of a CSV file of tweets
+     * @param snapshotPath - the path of a snapshot of a chain trained on it
+     * @return true if the snapshot exists and is newer than the tweets
+     */
+    static boolean isFresh(String tweetsPath, String snapshotPath) {
+        return new File(snapshotPath).lastModified() > new File(tweetsPath).lastModified();
+    }
+
     /**
      * Prints ten generated tweets to the console so you can see how your bot is
      * performing!
+     * <p>
+     * The trained MarkovChain is saved to PATH_TO_SNAPSHOT, and later runs load
+     * it from there instead of retraining until PATH_TO_TWEETS changes.
      */
-    public static void main(String[] args) {
-        BufferedReader br = FileLineIterator.fileToReader(PATH_TO_TWEETS);
-        TwitterBot t = new TwitterBot(br, TWEET_COLUMN);
+    public static void main(String[] args) throws IOException {
+        NumberGenerator ng = new SplittableNumberGenerator();
+        TwitterBot t = new TwitterBot(loadOrTrain(ng), ng);
         List<String> tweets = t.generateTweets(10, 280); // 280 chars in a tweet
         for (String tweet : tweets) {
             System.out.println(tweet);
@@ -11,6 +11,8 @@ import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 /** Tests for TwitterBot class */
 public class TwitterBotTest {
@@ -135,4 +137,134 @@ public class TwitterBotTest {
         }
     }
 
+    @Test
+    public void testGenerateTweetCharsMatchesLongestFittingTweet() {
+        String words = "0, The end should come here.\n"
+                + "1, This comes from data with no duplicate words!\n"
+                + "2, The data should come from here. The end is near?\n"
+                + "3, No words come here; the end comes";
+        for (int seed = 0; seed < 20; seed++) {
+            for (int numChars : new int[] { 0, 3, 10, 50, 140, 280 }) {
+                String expected = "";
+                for (int numWords = 1;; numWords++) {
+                    String tweet = makeBot(words, seed).generateTweet(numWords);
+                    if (tweet.length() > numChars) {
+                        break;
+                    }
+                    expected = tweet;
+                }
+                assertEquals(expected, makeBot(words, seed).generateTweetChars(numChars));
+            }
+        }
+    }
+
+    @Test
+    public void testGenerateTweetsWithSeedIgnoresParallelism() throws Exception {
+        TwitterBot bot = new TwitterBot(
+                FileLineIterator.fileToReader("./files/noaa_tweets.csv"), 2
+        );
+        MarkovModel model = bot.mc.toModel();
+        List<String> expected = bot.generateTweets(500, 140, 1200L);
+        assertEquals(500, expected.size());
+        for (int threads : new int[] { 1, 3, 8 }) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                List<String> tweets = pool.submit(
+                        () -> TwitterBot.generateTweets(model, 500, 140, 1200L)
+                ).get();
+                assertEquals(expected, tweets);
+            } finally {
+                pool.shutdown();
+            }
+        }
+        assertNotEquals(expected, bot.generateTweets(500, 140, 1201L));
+        for (String tweet : expected) {
+            assertTrue(tweet.length() <= 140);
+        }
+    }
+
+    @Test
+    public void testGenerateTweetsWithSeedEmptyAndInvalid() {
+        TwitterBot bot = makeBot("0, The end should come here.", 0);
+        assertEquals(new ArrayList<String>(), bot.generateTweets(0, 140, 1L));
+        assertThrows(IllegalArgumentException.class, () -> bot.generateTweets(-1, 140, 1L));
+        assertThrows(IllegalArgumentException.class, () -> bot.generateTweets(1, -1, 1L));
+    }
+
+    @Test
+    public void testGenerateTweetsStreamsAreNotShiftedCopies() {
+        List<SplittableNumberGenerator> generators = TwitterBot.tweetGenerators(1200L, 10);
+        List<List<Integer>> streams = new ArrayList<>();
+        for (NumberGenerator ng : generators) {
+            List<Integer> draws = new ArrayList<>();
+            for (int j = 0; j < 64; j++) {
+                draws.add(ng.next(1 << 30));
+            }
+            streams.add(draws);
+        }
+        for (int i = 0; i + 1 < streams.size(); i++) {
+            List<Integer> current = streams.get(i);
+            List<Integer> following = streams.get(i + 1);
+            for (int shift = 0; shift <= 16; shift++) {
+                assertNotEquals(current.subList(shift, 48), following.subList(0, 48 - shift));
+                assertNotEquals(following.subList(shift, 48), current.subList(0, 48 - shift));
+            }
+        }
+    }
+
+    // A helper function that splits a tweet into its cleaned words
+    private static List<String> tweetWords(String tweet) {
+        List<String> words = new ArrayList<>();
+        for (List<String> sentence : TweetParser.parseAndCleanTweet(tweet)) {
+            words.addAll(sentence);
+        }
+        return words;
+    }
+
+    // A helper function to build a bot whose random choices come from a seed
+    private static TwitterBot makeBot(String words, long seed) {
+        Random random = new Random(seed);
+        BufferedReader br = new BufferedReader(new StringReader(words));
+        return new TwitterBot(br, 1, random::nextInt);
+    }
+
+    @Test
+    public void testGenerateTweetWithKeyword() {
+        Random random = new Random(1200);
+        TwitterBot bot = new TwitterBot(
+                FileLineIterator.fileToReader("./files/dog_feelings_tweets.csv"), 2,
+                random::nextInt
+        );
+        MarkovModel model = bot.mc.toModel();
+        for (String keyword : Arrays.asList("walk", "Bath", "the", "zoomies")) {
+            assertTrue(model.contains(keyword.toLowerCase()), keyword);
+            for (int chars : new int[] { 20, 140, 280 }) {
+                String tweet = TwitterBot.generateTweetWithKeyword(
+                        model, random::nextInt, keyword, chars
+                );
+                assertTrue(tweet.length() <= chars);
+                assertTrue(TwitterBot.isPunctuated(tweet));
+                assertTrue(tweetWords(tweet).contains(keyword.toLowerCase()), tweet);
+            }
+        }
+        String tweet = bot.generateTweetWithKeyword("the", 280);
+        assertTrue(tweetWords(tweet).contains("the"), tweet);
+    }
+
+    @Test
+    public void testGenerateTweetWithKeywordOnlyWord() {
+        TwitterBot bot = makeBot("0, woof.", 1);
+        String tweet = bot.generateTweetWithKeyword("Woof", 5);
+        assertEquals("woof", tweet.substring(0, 4));
+        assertTrue(TwitterBot.isPunctuated(tweet));
+        assertThrows(
+                IllegalArgumentException.class, () -> bot.generateTweetWithKeyword("woof", 4)
+        );
+        assertThrows(
+                IllegalArgumentException.class, () -> bot.generateTweetWithKeyword("meow", 280)
+        );
+        assertThrows(
+                IllegalArgumentException.class, () -> bot.generateTweetWithKeyword(null, 280)
+        );
+    }
 }
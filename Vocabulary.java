@@ -0,0 +1,180 @@
+package org.cis1200;
+
+import java.util.Arrays;
+
+/**
+ * A Vocabulary interns words, giving each distinct String a small int id.
+ * Ids are handed out densely in the order words are first seen (0, 1, 2, ...),
+ * so they can be used directly as indexes into primitive arrays.
+ * <p>
+ * Lookups use an open-addressed hash table of ids, so interning a word costs
+ * one String.hashCode() (which Strings cache) and usually one equals() call,
+ * rather than the O(log n) string comparisons of a TreeMap.
+ */
+public class Vocabulary {
+    /** marks an empty slot in the hash table */
+    private static final int EMPTY = -1;
+
+    /** words[id] is the word with that id */
+    private String[] words;
+    /** number of words interned so far */
+    private int size;
+    /** open-addressed table of ids; length is always a power of two */
+    private int[] slots;
+    /** ids in the natural (lexical) order of their words; null when stale */
+    private int[] sortedIds;
+
+    public Vocabulary() {
+        words = new String[16];
+        slots = new int[32];
+        Arrays.fill(slots, EMPTY);
+    }
+
+    /**
+     * Creates an independent copy of another vocabulary, with the same ids.
+     *
+     * @param other - the vocabulary to copy
+     */
+    Vocabulary(Vocabulary other) {
+        words = other.words.clone();
+        size = other.size;
+        slots = other.slots.clone();
+        sortedIds = other.sortedIds;
+    }
+
+    /**
+     * Returns the id of a word, adding the word to the vocabulary if it has not
+     * been seen before.
+     *
+     * @param word - the (non-null) word to intern
+     * @return the id of word
+     * @throws IllegalArgumentException - when word is null
+     */
+    public int intern(String word) {
+        if (word == null) {
+            throw new IllegalArgumentException("word cannot be null");
+        }
+        int slot = find(word);
+        if (slots[slot] != EMPTY) {
+            return slots[slot];
+        }
+        if (size == words.length) {
+            words = Arrays.copyOf(words, size * 2);
+        }
+        int id = size;
+        words[id] = word;
+        slots[slot] = id;
+        size++;
+        sortedIds = null;
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    /**
+     * Returns the id of a word without interning it.
+     *
+     * @param word - the word to look up
+     * @return the id of word, or -1 if it has never been interned
+     */
+    public int id(String word) {
+        if (word == null) {
+            return -1;
+        }
+        int id = slots[find(word)];
+        return id == EMPTY ? -1 : id;
+    }
+
+    /**
+     * @param id - an id returned by {@link #intern}
+     * @return the word with that id
+     * @throws IndexOutOfBoundsException - when id is not a valid id
+     */
+    public String word(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("no word with id " + id);
+        }
+        return words[id];
+    }
+
+    /**
+     * @return the number of distinct words interned so far
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the approximate heap used by the vocabulary's own arrays, not
+     *         counting the word Strings (which may be shared), and counting
+     *         the sorted ids whether or not they have been built yet
+     */
+    long bytes() {
+        // 4 bytes per reference, as with compressed oops
+        return 4L * words.length + (long) Integer.BYTES * (slots.length + size);
+    }
+
+    /**
+     * @return the approximate heap used by the word Strings
+     */
+    long wordBytes() {
+        long bytes = 0;
+        for (int id = 0; id < size; id++) {
+            // String and byte[] headers and the bytes
+            bytes += 40 + words[id].length();
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns every id, ordered by the natural order of the corresponding words
+     * (the same order a TreeMap of the words would use). The result is cached
+     * until the next new word is interned and must not be modified.
+     *
+     * @return the ids of this vocabulary in lexical order
+     */
+    int[] sortedIds() {
+        if (sortedIds == null) {
+            String[] sorted = Arrays.copyOf(words, size);
+            Arrays.sort(sorted);
+            int[] ids = new int[size];
+            for (int i = 0; i < size; i++) {
+                ids[i] = id(sorted[i]);
+            }
+            sortedIds = ids;
+        }
+        return sortedIds;
+    }
+
+    /**
+     * Finds the slot holding word, or the empty slot where it would go.
+     */
+    private int find(String word) {
+        int mask = slots.length - 1;
+        int slot = mix(word.hashCode()) & mask;
+        while (slots[slot] != EMPTY && !words[slots[slot]].equals(word)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        Arrays.fill(slots, EMPTY);
+        int mask = slots.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = mix(words[id].hashCode()) & mask;
+            while (slots[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = id;
+        }
+    }
+
+    /** Spreads the bits of a String hash code so that low bits vary. */
+    private static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
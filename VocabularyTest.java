@@ -0,0 +1,56 @@
+package org.cis1200;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tests for Vocabulary */
+public class VocabularyTest {
+
+    @Test
+    public void testInternAssignsDenseIds() {
+        Vocabulary v = new Vocabulary();
+        assertEquals(0, v.intern("a"));
+        assertEquals(1, v.intern("b"));
+        assertEquals(0, v.intern("a"));
+        assertEquals(2, v.size());
+        assertEquals("b", v.word(1));
+    }
+
+    @Test
+    public void testIdOfUnknownWord() {
+        Vocabulary v = new Vocabulary();
+        v.intern("a");
+        assertEquals(-1, v.id("b"));
+        assertEquals(-1, v.id(null));
+        assertEquals(1, v.size());
+    }
+
+    @Test
+    public void testInternNull() {
+        Vocabulary v = new Vocabulary();
+        assertThrows(IllegalArgumentException.class, () -> v.intern(null));
+    }
+
+    @Test
+    public void testInternManyWordsSurvivesRehash() {
+        Vocabulary v = new Vocabulary();
+        for (int i = 0; i < 10000; i++) {
+            assertEquals(i, v.intern("w" + i));
+        }
+        for (int i = 0; i < 10000; i++) {
+            assertEquals(i, v.id("w" + i));
+        }
+    }
+
+    @Test
+    public void testSortedIdsFollowsNaturalOrder() {
+        Vocabulary v = new Vocabulary();
+        v.intern("pear");
+        v.intern("apple");
+        v.intern("<END>");
+        v.intern("Zebra");
+        int[] expected = { 2, 3, 1, 0 };
+        assertArrayEquals(expected, v.sortedIds());
+    }
+}
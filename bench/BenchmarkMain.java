@@ -0,0 +1,26 @@
+package org.cis1200;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs every benchmark in this directory with JMH's gc profiler, which adds
+ * the allocation rate (gc.alloc.rate.norm, bytes per operation) next to each
+ * throughput score. Run it from the project directory so that the corpora in
+ * files/ are found.
+ * <p>
+ * An optional argument selects benchmarks by regular expression, for example
+ * "GenerateBenchmark.next".
+ */
+public class BenchmarkMain {
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(args.length > 0 ? args[0] : "org\\.cis1200\\..*Benchmark")
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
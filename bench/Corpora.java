@@ -0,0 +1,103 @@
+package org.cis1200;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * Corpora loads the CSV text that the benchmarks run on. A corpus is named
+ * either by a file in the files directory (for example "noaa_tweets.csv"), or
+ * by "synthetic:N" for N generated tweets.
+ * <p>
+ * Synthetic tweets are generated by a MarkovChain trained on every bundled
+ * corpus, so they have realistic word and sentence lengths. Roughly one word in
+ * eight gets a numeric suffix, so the vocabulary keeps growing with N the way it
+ * does for a real, larger feed instead of saturating at the bundled words.
+ * <p>
+ * Every corpus is a CSV with the tweet in column TWEET_COLUMN, and generation is
+ * seeded, so each run of a benchmark sees exactly the same input.
+ */
+final class Corpora {
+    /** the column of every corpus that holds the tweet */
+    static final int TWEET_COLUMN = 2;
+
+    private static final String[] BUNDLED = {
+        "big_ben_clock_tweets.csv", "captain_markov_tweets.csv",
+        "dog_feelings_tweets.csv", "noaa_tweets.csv"
+    };
+    private static final String SYNTHETIC = "synthetic:";
+
+    private Corpora() {
+    }
+
+    /**
+     * @param name - a bundled file name or "synthetic:N"
+     * @return the whole corpus as CSV text
+     */
+    static String load(String name) {
+        if (name.startsWith(SYNTHETIC)) {
+            return synthetic(Integer.parseInt(name.substring(SYNTHETIC.length())));
+        }
+        try {
+            return new String(
+                    Files.readAllBytes(Paths.get("files", name)), StandardCharsets.UTF_8
+            );
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @param csv - CSV text returned by {@link #load}
+     * @return a TwitterBot trained on csv whose choices follow a fixed seed
+     */
+    static TwitterBot trainedBot(String csv, long seed) {
+        return new TwitterBot(
+                new BufferedReader(new StringReader(csv)),
+                TWEET_COLUMN, new RandomNumberGenerator(seed)
+        );
+    }
+
+    private static String synthetic(int tweets) {
+        StringBuilder bundled = new StringBuilder();
+        for (String name : BUNDLED) {
+            bundled.append(load(name));
+            if (bundled.length() > 0 && bundled.charAt(bundled.length() - 1) != '\n') {
+                bundled.append('\n');
+            }
+        }
+        TwitterBot bot = trainedBot(bundled.toString(), 1200);
+        Random random = new Random(1200);
+        int suffixes = Math.max(1, tweets / 10);
+
+        StringBuilder csv = new StringBuilder(tweets * 160);
+        for (int i = 0; i < tweets; i++) {
+            csv.append(i).append(",synthetic,\"");
+            for (String word : bot.generateTweetChars(140).split(" ")) {
+                if (word.isEmpty()) {
+                    continue;
+                }
+                if (csv.charAt(csv.length() - 1) != '"') {
+                    csv.append(' ');
+                }
+                // keep the sentence's end punctuation after any suffix
+                char last = word.charAt(word.length() - 1);
+                boolean punctuated = !Character.isLetterOrDigit(last) && last != '\'';
+                csv.append(word, 0, word.length() - (punctuated ? 1 : 0));
+                if (random.nextInt(8) == 0) {
+                    csv.append(random.nextInt(suffixes));
+                }
+                if (punctuated) {
+                    csv.append(last);
+                }
+            }
+            csv.append("\"\n");
+        }
+        return csv.toString();
+    }
+}
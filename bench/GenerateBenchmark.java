@@ -0,0 +1,110 @@
+package org.cis1200;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks walking a trained MarkovChain: single steps of next(), whole
+ * tweets from TwitterBot.generateTweet and generateTweetChars (from the heap
+ * and from a MappedModel), parallel batches from TwitterBot.generateTweets,
+ * tweets through a keyword, and checking a tweet against an NgramIndex of the
+ * corpus. The bot is trained
+ * once per trial and seeded, so every run walks the same sentences.
+ * <p>
+ * MarkovChain and TwitterBot keep walk state, so each benchmark thread gets
+ * its own bot.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GenerateBenchmark {
+    @Param({ "noaa_tweets.csv", "dog_feelings_tweets.csv", "synthetic:100000" })
+    public String corpus;
+
+    private TwitterBot bot;
+    private MarkovModel model;
+    private MappedModel mapped;
+    private long seed;
+    private NgramIndex index;
+    private String tweet;
+    private String keyword;
+
+    @Setup
+    public void setUp() throws IOException {
+        bot = Corpora.trainedBot(Corpora.load(corpus), 1200);
+        bot.mc.reset();
+        model = bot.mc.toModel();
+        File file = File.createTempFile("generate", ".mapped");
+        file.deleteOnExit();
+        MappedModel.save(bot.mc, file.getPath());
+        mapped = MappedModel.open(file.getPath());
+        index = new NgramIndex(4);
+        TweetParser.csvDataToTrainingData(
+                new BufferedReader(new StringReader(Corpora.load(corpus))),
+                Corpora.TWEET_COLUMN, index
+        );
+        tweet = bot.generateTweetChars(280);
+        keyword = TweetParser.parseAndCleanTweet(tweet).get(0).get(0);
+    }
+
+    @Benchmark
+    public String next() {
+        if (!bot.mc.hasNext()) {
+            bot.mc.reset();
+        }
+        return bot.mc.next();
+    }
+
+    @Benchmark
+    public String generateTweet() {
+        return bot.generateTweet(20);
+    }
+
+    @Benchmark
+    public String generateTweetChars() {
+        return bot.generateTweetChars(280);
+    }
+
+    /** A tweet walked through the mapped file instead of the heap. */
+    @Benchmark
+    public String generateTweetCharsMapped() {
+        return TwitterBot.generateTweetChars(mapped, bot.ng, 280);
+    }
+
+    /** A parallel batch of 1,000 tweets, with a new seed each time. */
+    @Benchmark
+    public List<String> generateTweetsBatch() {
+        return TwitterBot.generateTweets(model, 1000, 280, seed++);
+    }
+
+    /** A tweet built outwards from a keyword through the reverse index. */
+    @Benchmark
+    public String generateTweetWithKeyword() {
+        return TwitterBot.generateTweetWithKeyword(model, bot.ng, keyword, 280);
+    }
+
+    /** One 280-character tweet checked for copies of 4 training words. */
+    @Benchmark
+    public boolean copies() {
+        return index.copies(tweet);
+    }
+}
@@ -0,0 +1,87 @@
+package org.cis1200;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares RandomNumberGenerator with SplittableNumberGenerator: single
+ * bounded draws on one thread, draws from four threads (one
+ * RandomNumberGenerator shared by all of them, as a shared bot would use it,
+ * against one split SplittableNumberGenerator per thread), and whole tweets
+ * generated from four threads in the same two ways.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NumberGeneratorBenchmark {
+    /** a typical number of successors of a word */
+    private static final int BOUND = 1000;
+
+    private static final RandomNumberGenerator SHARED = new RandomNumberGenerator(1200);
+    private static final SplittableNumberGenerator ROOT = new SplittableNumberGenerator(1200);
+
+    @Param({ "noaa_tweets.csv" })
+    public String corpus;
+
+    private RandomNumberGenerator random;
+    private SplittableNumberGenerator splittable;
+    private MarkovModel model;
+
+    @Setup
+    public void setUp() {
+        random = new RandomNumberGenerator(1200);
+        synchronized (ROOT) {
+            splittable = ROOT.split();
+        }
+        model = Corpora.trainedBot(Corpora.load(corpus), 1200).mc.toModel();
+    }
+
+    @Benchmark
+    public int random() {
+        return random.next(BOUND);
+    }
+
+    @Benchmark
+    public int splittable() {
+        return splittable.next(BOUND);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int randomShared() {
+        return SHARED.next(BOUND);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int splittablePerThread() {
+        return splittable.next(BOUND);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String tweetRandomShared() {
+        return TwitterBot.generateTweetChars(model, SHARED, 280);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String tweetSplittablePerThread() {
+        return TwitterBot.generateTweetChars(model, splittable, 280);
+    }
+}
@@ -0,0 +1,84 @@
+package org.cis1200;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks adding small batches to an OnlineTrainer that has already been
+ * trained on a whole corpus, publishing a model after every batch or after
+ * every publishEvery batches. Publishing rebuilds the whole model, so with
+ * publishEvery = 1 the score falls as the corpus grows, however small the
+ * batches are. The score is batches per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OnlineTrainerBenchmark {
+    /** the number of sentences in each added batch */
+    private static final int BATCH = 10;
+
+    @Param({ "noaa_tweets.csv", "synthetic:100000" })
+    public String corpus;
+
+    @Param({ "1", "100" })
+    public int publishEvery;
+
+    private List<List<String>> sentences;
+    private Path dir;
+    private OnlineTrainer trainer;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        BufferedReader br = new BufferedReader(new StringReader(Corpora.load(corpus)));
+        sentences = TweetParser.csvDataToTrainingData(br, Corpora.TWEET_COLUMN);
+        dir = Files.createTempDirectory("online");
+        trainer = new OnlineTrainer(
+                dir.resolve("model").toString(), dir.resolve("log").toString(),
+                new RandomNumberGenerator(1200), publishEvery
+        );
+        trainer.addSentences(sentences);
+        trainer.checkpoint();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        trainer.close();
+        Files.deleteIfExists(dir.resolve("model"));
+        Files.deleteIfExists(dir.resolve("log"));
+        Files.deleteIfExists(dir);
+    }
+
+    @Benchmark
+    public MarkovModel addBatch() {
+        int from = next;
+        next = (next + BATCH) % (sentences.size() - BATCH);
+        try {
+            return trainer.addSentences(sentences.subList(from, from + BATCH));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package org.cis1200;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks OrderKChain for orders 1 to 4, with and without backoff:
+ * training a fresh chain on the whole corpus (so the score is corpora per
+ * second), and walking a trained chain one word at a time. Setup prints the
+ * size of each trained chain, so memory can be compared across orders from
+ * the same run.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderKBenchmark {
+    @Param({
+        "noaa_tweets.csv", "dog_feelings_tweets.csv", "captain_markov_tweets.csv",
+        "synthetic:100000"
+    })
+    public String corpus;
+
+    @Param({ "1", "2", "3", "4" })
+    public int order;
+
+    @Param({ "false", "true" })
+    public boolean backoff;
+
+    private List<List<String>> sentences;
+    private OrderKChain chain;
+
+    @Setup
+    public void setUp() {
+        BufferedReader br = new BufferedReader(new StringReader(Corpora.load(corpus)));
+        sentences = TweetParser.csvDataToTrainingData(br, Corpora.TWEET_COLUMN);
+        chain = train();
+        System.out.println(
+                corpus + " order " + order + (backoff ? " with backoff: " : ": ")
+                        + chain.contexts() + " contexts, " + chain.bytes() + " bytes"
+        );
+    }
+
+    @Benchmark
+    public OrderKChain train() {
+        OrderKChain trained = new OrderKChain(
+                order, new RandomNumberGenerator(1200), backoff
+        );
+        for (List<String> sentence : sentences) {
+            trained.train(sentence.iterator());
+        }
+        return trained;
+    }
+
+    @Benchmark
+    public String next() {
+        if (!chain.hasNext()) {
+            chain.reset();
+        }
+        return chain.next();
+    }
+}
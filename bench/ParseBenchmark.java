@@ -0,0 +1,64 @@
+package org.cis1200;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks turning CSV text into training data. Each invocation parses the
+ * whole corpus, so the score is corpora per second; the CSV text is held in
+ * memory so disk speed does not affect the result.
+ * <p>
+ * csvDataToTrainingData measures the full path, and cleanTweets measures
+ * TweetParser.parseAndCleanTweet on its own so a regression can be pinned on
+ * either the CSV scanner or the cleaner.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParseBenchmark {
+    @Param({ "noaa_tweets.csv", "dog_feelings_tweets.csv", "synthetic:100000" })
+    public String corpus;
+
+    private String csv;
+    private List<String> tweets;
+
+    @Setup
+    public void setUp() {
+        csv = Corpora.load(corpus);
+        tweets = TweetParser.csvDataToTweets(reader(), Corpora.TWEET_COLUMN);
+    }
+
+    @Benchmark
+    public List<List<String>> csvDataToTrainingData() {
+        return TweetParser.csvDataToTrainingData(reader(), Corpora.TWEET_COLUMN);
+    }
+
+    @Benchmark
+    public void cleanTweets(Blackhole blackhole) {
+        for (String tweet : tweets) {
+            blackhole.consume(TweetParser.parseAndCleanTweet(tweet));
+        }
+    }
+
+    private BufferedReader reader() {
+        return new BufferedReader(new StringReader(csv));
+    }
+}
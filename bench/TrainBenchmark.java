@@ -0,0 +1,58 @@
+package org.cis1200;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks training a fresh MarkovChain on already cleaned training data,
+ * one sentence at a time and as a parallel stream. Each invocation trains on
+ * the whole corpus, so the score is corpora per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TrainBenchmark {
+    @Param({ "noaa_tweets.csv", "dog_feelings_tweets.csv", "synthetic:100000" })
+    public String corpus;
+
+    private List<List<String>> sentences;
+
+    @Setup
+    public void setUp() {
+        BufferedReader br = new BufferedReader(new StringReader(Corpora.load(corpus)));
+        sentences = TweetParser.csvDataToTrainingData(br, Corpora.TWEET_COLUMN);
+    }
+
+    @Benchmark
+    public MarkovChain train() {
+        MarkovChain mc = new MarkovChain(new RandomNumberGenerator(1200));
+        for (List<String> sentence : sentences) {
+            mc.train(sentence.iterator());
+        }
+        return mc;
+    }
+
+    @Benchmark
+    public MarkovChain trainParallel() {
+        MarkovChain mc = new MarkovChain(new RandomNumberGenerator(1200));
+        mc.train(sentences.parallelStream());
+        return mc;
+    }
+}